@@ -0,0 +1,65 @@
+package com.example.javaapp;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.Collections;
+import java.util.List;
+
+// Compact appearance descriptor of a vehicle box: a hue/saturation histogram of the box crop,
+// downscaled first so the cost does not depend on the box size, and L1-normalized so descriptors
+// compare with ReidGallery.distance. All Mats are reused across calls.
+public class AppearanceExtractor {
+
+    public static final int HUE_BINS = 8;
+    public static final int SATURATION_BINS = 4;
+    public static final int SIZE = HUE_BINS * SATURATION_BINS;
+
+    private static final Size PATCH_SIZE = new Size(32, 32);
+    private static final float INSET = 0.1f; // Trim this fraction of each side to drop road and neighbours
+
+    private final Mat patch = new Mat();
+    private final Mat rgb = new Mat();
+    private final Mat hsv = new Mat();
+    private final Mat hist = new Mat();
+    private final Mat noMask = new Mat();
+    private final List<Mat> images = Collections.singletonList(hsv);
+    private final MatOfInt channels = new MatOfInt(0, 1);
+    private final MatOfInt histSize = new MatOfInt(HUE_BINS, SATURATION_BINS);
+    private final MatOfFloat ranges = new MatOfFloat(0f, 180f, 0f, 256f);
+    private final float[] bins = new float[SIZE];
+
+    // Writes the descriptor of the box of an RGBA frame to out[offset..offset + SIZE).
+    // Returns false, leaving out untouched, if the box has no pixels inside the frame.
+    public boolean compute(Mat rgbaFrame, float left, float top, float right, float bottom, float[] out, int offset) {
+        float insetX = (right - left) * INSET;
+        float insetY = (bottom - top) * INSET;
+        int x0 = Math.max(0, (int) (left + insetX));
+        int y0 = Math.max(0, (int) (top + insetY));
+        int x1 = Math.min(rgbaFrame.cols(), (int) (right - insetX));
+        int y1 = Math.min(rgbaFrame.rows(), (int) (bottom - insetY));
+        if (x1 <= x0 || y1 <= y0) {
+            return false;
+        }
+
+        Mat roi = rgbaFrame.submat(y0, y1, x0, x1);
+        Imgproc.resize(roi, patch, PATCH_SIZE, 0, 0, Imgproc.INTER_AREA);
+        roi.release();
+        Imgproc.cvtColor(patch, rgb, Imgproc.COLOR_RGBA2RGB);
+        Imgproc.cvtColor(rgb, hsv, Imgproc.COLOR_RGB2HSV);
+        Imgproc.calcHist(images, channels, noMask, hist, histSize, ranges);
+        hist.get(0, 0, bins);
+
+        float total = 0;
+        for (int i = 0; i < SIZE; i++) {
+            total += bins[i];
+        }
+        for (int i = 0; i < SIZE; i++) {
+            out[offset + i] = total > 0 ? bins[i] / total : 1f / SIZE;
+        }
+        return true;
+    }
+}
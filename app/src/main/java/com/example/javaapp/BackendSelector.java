@@ -0,0 +1,146 @@
+package com.example.javaapp;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+// Picks the fastest DetectorBackend on the current device with a short startup micro-benchmark.
+// The winner is cached in a properties file so later starts skip the benchmark.
+public class BackendSelector {
+
+    public static final int WARMUP_RUNS = 3;
+    public static final int BENCHMARK_RUNS = 10;
+
+    private final File cacheFile; // null disables caching
+    private final Map<String, Long> results = new LinkedHashMap<>(); // backend name -> median run time in ns, -1 if it failed
+    private boolean fromCache = false;
+
+    public BackendSelector(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    // Returns the fastest backend for the given model key. The first factory is the reference
+    // backend; if every candidate fails its exception is rethrown.
+    public DetectorBackend select(String key, List<DetectorBackend.Factory> factories, FrameContext ctx) throws Exception {
+        results.clear();
+        fromCache = false;
+
+        String cached = readCache(key);
+        if (cached != null) {
+            for (DetectorBackend.Factory factory : factories) {
+                if (factory.getName().equals(cached)) {
+                    try {
+                        DetectorBackend backend = factory.create();
+                        fromCache = true;
+                        return backend;
+                    } catch (Exception e) {
+                        break; // Fall back to benchmarking, e.g. after a driver update
+                    }
+                }
+            }
+        }
+
+        DetectorBackend best = null;
+        long bestTime = Long.MAX_VALUE;
+        Exception firstFailure = null;
+        for (DetectorBackend.Factory factory : factories) {
+            DetectorBackend backend = null;
+            long time;
+            try {
+                backend = factory.create();
+                time = benchmark(backend, ctx);
+            } catch (Exception e) {
+                if (backend != null) {
+                    // Created but failed to run: release its interpreter or delegate before moving on
+                    backend.close();
+                }
+                results.put(factory.getName(), -1L);
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+                continue;
+            }
+            results.put(backend.getName(), time);
+            if (time < bestTime) {
+                if (best != null) {
+                    best.close();
+                }
+                best = backend;
+                bestTime = time;
+            } else {
+                backend.close();
+            }
+        }
+
+        if (best == null) {
+            throw firstFailure != null ? firstFailure : new IllegalStateException("No detector backends");
+        }
+        writeCache(key, best.getName());
+        return best;
+    }
+
+    // Median wall time of BENCHMARK_RUNS runs after WARMUP_RUNS warm-up runs
+    static long benchmark(DetectorBackend backend, FrameContext ctx) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            backend.run(ctx);
+        }
+        long[] times = new long[BENCHMARK_RUNS];
+        for (int i = 0; i < BENCHMARK_RUNS; i++) {
+            long start = System.nanoTime();
+            backend.run(ctx);
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[BENCHMARK_RUNS / 2];
+    }
+
+    private String readCache(String key) {
+        if (cacheFile == null || !cacheFile.exists()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(cacheFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            return null;
+        }
+        return properties.getProperty(key);
+    }
+
+    private void writeCache(String key, String backendName) {
+        if (cacheFile == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        if (cacheFile.exists()) {
+            try (InputStream in = new FileInputStream(cacheFile)) {
+                properties.load(in);
+            } catch (IOException e) {
+                // Overwrite a corrupt cache
+            }
+        }
+        properties.setProperty(key, backendName);
+        try (OutputStream out = new FileOutputStream(cacheFile)) {
+            properties.store(out, "Detector backend selection");
+        } catch (IOException e) {
+            // Caching is best effort; the benchmark simply runs again next start
+        }
+    }
+
+    // Benchmark results of the last selection; empty if the cached choice was used
+    public Map<String, Long> getResults() {
+        return results;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+}
@@ -8,6 +8,7 @@ import android.Manifest;
 import android.app.Activity;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.SurfaceView;
 import android.view.Window;
@@ -45,6 +46,10 @@ public class CameraActivity extends AppCompatActivity implements CameraBridgeVie
     private Mat mGray;
     private CameraBridgeViewBase mOpenCvCameraView;
     private ObjectDetector ObjectDetector;
+    private static final boolean PIPELINED = true; // Run detection off the camera thread
+    private static final int DETECTION_INTERVAL = 4; // Run the model every 4th frame, optical flow in between
+    private InferencePipeline pipeline;
+    private final CameraFrame cameraFrame = new CameraFrame(); // Camera-side view of the current frame
     private BaseLoaderCallback mLoaderCallback =new BaseLoaderCallback(this) {
 
         @Override
@@ -88,7 +93,7 @@ public class CameraActivity extends AppCompatActivity implements CameraBridgeVie
         mOpenCvCameraView.setCvCameraViewListener(this);
 
         try{
-            ObjectDetector=new ObjectDetector(getAssets(),"model.tflite","labelmap.txt",300);
+            ObjectDetector=new ObjectDetector(getAssets(),"model.tflite","labelmap.txt",300,getCacheDir(),getFilesDir());
             Log.d("MainActivity","Model is successfully loaded");
         }
         catch (IOException e){
@@ -133,15 +138,32 @@ public class CameraActivity extends AppCompatActivity implements CameraBridgeVie
     public void onCameraViewStarted(int width ,int height){
         mRgba=new Mat(height,width, CvType.CV_8UC4);
         mGray =new Mat(height,width,CvType.CV_8UC1);
+        if (PIPELINED && ObjectDetector != null){
+            ObjectDetector.setDetectionInterval(DETECTION_INTERVAL);
+            pipeline=new InferencePipeline(ObjectDetector);
+            pipeline.start();
+        }
     }
     public void onCameraViewStopped(){
+        if (pipeline != null){
+            pipeline.stop();
+            pipeline=null;
+        }
         mRgba.release();
     }
     public Mat onCameraFrame(CameraBridgeViewBase.CvCameraViewFrame inputFrame){
+        // The camera view delivers preview frames without their sensor timestamp; stamp them on arrival,
+        // before any queueing, so speeds do not depend on when inference gets to them
+        long timestampNanos = SystemClock.elapsedRealtimeNanos();
         mRgba=inputFrame.rgba();
         mGray=inputFrame.gray();
+        if (pipeline != null){
+            // Detection runs on its own thread; display the newest result on every camera frame
+            pipeline.submit(cameraFrame.set(mRgba, mGray, timestampNanos));
+            return pipeline.render(mRgba);
+        }
         Mat out=new Mat();
-        out=ObjectDetector.recognizeImage(mRgba);
+        out=ObjectDetector.recognizeImage(mRgba, timestampNanos);
 
         return out;
     }
@@ -0,0 +1,65 @@
+package com.example.javaapp;
+
+import org.opencv.core.Mat;
+
+// A camera frame as it travels through the pipeline: the RGBA image plus the gray plane the camera
+// view already provides (null when the source has none, e.g. decoded video), and the frame's capture
+// time in ns, which stays attached to it through queueing and inference.
+public class CameraFrame {
+
+    Mat rgba;
+    Mat gray;
+    long timestampNanos;
+
+    // Wraps the given Mats without copying; used for the camera-side view of a frame
+    public CameraFrame set(Mat rgba, Mat gray, long timestampNanos) {
+        this.rgba = rgba;
+        this.gray = gray;
+        this.timestampNanos = timestampNanos;
+        return this;
+    }
+
+    // Copies this frame into a preallocated slot, reusing the slot's Mats
+    public void copyTo(CameraFrame slot) {
+        slot.timestampNanos = timestampNanos;
+        if (slot.rgba == null) {
+            slot.rgba = new Mat();
+        }
+        rgba.copyTo(slot.rgba);
+        if (gray == null) {
+            if (slot.gray != null) {
+                slot.gray.release();
+                slot.gray = null;
+            }
+            return;
+        }
+        if (slot.gray == null) {
+            slot.gray = new Mat();
+        }
+        gray.copyTo(slot.gray);
+    }
+
+    // Frees the Mats of a slot filled by copyTo; not for frames that only wrap camera Mats with set()
+    public void release() {
+        if (rgba != null) {
+            rgba.release();
+            rgba = null;
+        }
+        if (gray != null) {
+            gray.release();
+            gray = null;
+        }
+    }
+
+    public Mat getRgba() {
+        return rgba;
+    }
+
+    public Mat getGray() {
+        return gray;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
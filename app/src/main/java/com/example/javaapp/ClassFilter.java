@@ -0,0 +1,85 @@
+package com.example.javaapp;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Lookup tables that decide, per model class id, whether a detection is kept and how its track is
+// handled. The tables are sized to the label map and indexed by class id, so accepting a detection
+// is a single array read and switching to another model or label map needs no code change.
+// Classes start out rejected; tracked classes are enabled by label name with their score threshold,
+// association gate and nominal length.
+public class ClassFilter {
+
+    private final List<String> labels;
+    // Rejected classes keep an infinite threshold, so no separate accept flag is read
+    private final float[] minScore;
+    private final float[] gateDistance;
+    private final float[] lengthMeters;
+    private float maxGateDistance = 0;
+
+    public ClassFilter(List<String> labels) {
+        this.labels = labels;
+        minScore = new float[labels.size()];
+        gateDistance = new float[labels.size()];
+        lengthMeters = new float[labels.size()];
+        Arrays.fill(minScore, Float.POSITIVE_INFINITY);
+    }
+
+    // Filter accepting the vehicle classes of the COCO label map that this label map contains,
+    // with default thresholds, gates in px and nominal lengths in m
+    public static ClassFilter forVehicles(List<String> labels) {
+        ClassFilter filter = new ClassFilter(labels);
+        filter.accept("car", 0.5f, 300, 4.5f);
+        filter.accept("motorcycle", 0.5f, 200, 2.2f);
+        filter.accept("bus", 0.5f, 300, 12);
+        filter.accept("truck", 0.5f, 300, 8);
+        return filter;
+    }
+
+    // Accepts every class with the given label (ignoring case) and returns how many there are.
+    // A label missing from the map is not an error, so one table can serve several label maps.
+    public int accept(String label, float minimumScore, float gate, float nominalLengthMeters) {
+        if (!(gate > 0) || !(nominalLengthMeters > 0)) {
+            throw new IllegalArgumentException("Invalid parameters for " + label);
+        }
+        int found = 0;
+        for (int c = 0; c < labels.size(); c++) {
+            if (labels.get(c).trim().equalsIgnoreCase(label)) {
+                minScore[c] = minimumScore;
+                gateDistance[c] = gate;
+                lengthMeters[c] = nominalLengthMeters;
+                maxGateDistance = Math.max(maxGateDistance, gate);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // Whether a detection of the class with the score is kept
+    public boolean accepts(int classId, float score) {
+        return classId >= 0 && classId < minScore.length && score > minScore[classId];
+    }
+
+    // Maximum distance from a track's prediction for a detection of the class to be matched to it, px
+    public float gateDistance(int classId) {
+        return gateDistance[classId];
+    }
+
+    // Nominal length of a vehicle of the class, m
+    public float lengthMeters(int classId) {
+        return lengthMeters[classId];
+    }
+
+    // Largest gate of any accepted class, which sizes the tracker's spatial grid
+    public float getMaxGateDistance() {
+        return maxGateDistance;
+    }
+
+    public String label(int classId) {
+        return labels.get(classId);
+    }
+
+    public int size() {
+        return minScore.length;
+    }
+}
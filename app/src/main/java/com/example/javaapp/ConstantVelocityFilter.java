@@ -0,0 +1,155 @@
+package com.example.javaapp;
+
+// Constant-velocity Kalman filter over the state [x, y, vx, vy] of a track centroid, in pixels and
+// seconds. Process noise is white acceleration and the measurement is the detected centroid with
+// isotropic noise, so the x and y axes never correlate and the 4x4 covariance is kept as two 2x2
+// position/velocity blocks.
+// The filter math works on STATE_SIZE doubles at an offset of a caller-owned array, so a table of
+// tracks can keep all its states in one primitive array; the no-argument methods use a single
+// state owned by this instance.
+public class ConstantVelocityFilter {
+
+    // Layout of one state: position, velocity, then per-axis covariance [[pp, pv], [pv, vv]]
+    public static final int STATE_SIZE = 10;
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int VX = 2;
+    private static final int VY = 3;
+    private static final int XPP = 4;
+    private static final int XPV = 5;
+    private static final int XVV = 6;
+    private static final int YPP = 7;
+    private static final int YPV = 8;
+    private static final int YVV = 9;
+
+    private final double accelerationVariance; // (px/s^2)^2
+    private final double measurementVariance; // px^2
+    private final double initialVelocityVariance; // (px/s)^2
+
+    private final double[] own = new double[STATE_SIZE];
+
+    public ConstantVelocityFilter(double accelerationSigma, double measurementSigma, double initialVelocitySigma) {
+        this.accelerationVariance = accelerationSigma * accelerationSigma;
+        this.measurementVariance = measurementSigma * measurementSigma;
+        this.initialVelocityVariance = initialVelocitySigma * initialVelocitySigma;
+    }
+
+    // Starts a new track at the measured position with unknown velocity
+    public void reset(double[] s, int o, double measuredX, double measuredY) {
+        s[o + X] = measuredX;
+        s[o + Y] = measuredY;
+        s[o + VX] = 0;
+        s[o + VY] = 0;
+        s[o + XPP] = s[o + YPP] = measurementVariance;
+        s[o + XPV] = s[o + YPV] = 0;
+        s[o + XVV] = s[o + YVV] = initialVelocityVariance;
+    }
+
+    // Advances the state by dt seconds
+    public void predict(double[] s, int o, double dt) {
+        if (dt <= 0) {
+            return;
+        }
+        s[o + X] += s[o + VX] * dt;
+        s[o + Y] += s[o + VY] * dt;
+
+        double dt2 = dt * dt;
+        double q = accelerationVariance;
+        double qpp = q * dt2 * dt2 / 4;
+        double qpv = q * dt2 * dt / 2;
+        double qvv = q * dt2;
+
+        s[o + XPP] += 2 * dt * s[o + XPV] + dt2 * s[o + XVV] + qpp;
+        s[o + XPV] += dt * s[o + XVV] + qpv;
+        s[o + XVV] += qvv;
+        s[o + YPP] += 2 * dt * s[o + YPV] + dt2 * s[o + YVV] + qpp;
+        s[o + YPV] += dt * s[o + YVV] + qpv;
+        s[o + YVV] += qvv;
+    }
+
+    // Corrects the state with a measured centroid
+    public void update(double[] s, int o, double measuredX, double measuredY) {
+        correctAxis(s, o + X, o + VX, o + XPP, measuredX);
+        correctAxis(s, o + Y, o + VY, o + YPP, measuredY);
+    }
+
+    // One axis of the update; the axis covariance is stored as pp, pv, vv from index pp on
+    private void correctAxis(double[] s, int p, int v, int pp, double measured) {
+        double innovationVariance = s[pp] + measurementVariance;
+        double kp = s[pp] / innovationVariance;
+        double kv = s[pp + 1] / innovationVariance;
+        double innovation = measured - s[p];
+        s[p] += kp * innovation;
+        s[v] += kv * innovation;
+        s[pp + 2] -= kv * s[pp + 1];
+        s[pp + 1] -= kp * s[pp + 1];
+        s[pp] -= kp * s[pp];
+    }
+
+    // Squared Mahalanobis distance of a measurement from the predicted position, using the innovation
+    // covariance. Follows a chi-square distribution with 2 degrees of freedom for true matches.
+    public double mahalanobisSq(double[] s, int o, double measuredX, double measuredY) {
+        double dx = measuredX - s[o + X];
+        double dy = measuredY - s[o + Y];
+        return dx * dx / (s[o + XPP] + measurementVariance) + dy * dy / (s[o + YPP] + measurementVariance);
+    }
+
+    public static double getX(double[] s, int o) {
+        return s[o + X];
+    }
+
+    public static double getY(double[] s, int o) {
+        return s[o + Y];
+    }
+
+    public static double getVelocityX(double[] s, int o) {
+        return s[o + VX];
+    }
+
+    public static double getVelocityY(double[] s, int o) {
+        return s[o + VY];
+    }
+
+    // Single-track convenience methods on the instance's own state
+
+    public void reset(double measuredX, double measuredY) {
+        reset(own, 0, measuredX, measuredY);
+    }
+
+    public void predict(double dt) {
+        predict(own, 0, dt);
+    }
+
+    public void update(double measuredX, double measuredY) {
+        update(own, 0, measuredX, measuredY);
+    }
+
+    public double mahalanobisSq(double measuredX, double measuredY) {
+        return mahalanobisSq(own, 0, measuredX, measuredY);
+    }
+
+    public double getX() {
+        return own[X];
+    }
+
+    public double getY() {
+        return own[Y];
+    }
+
+    public double getVelocityX() {
+        return own[VX];
+    }
+
+    public double getVelocityY() {
+        return own[VY];
+    }
+
+    // Position variance along x, for diagnostics
+    public double getPositionVarianceX() {
+        return own[XPP];
+    }
+
+    public double getPositionVarianceY() {
+        return own[YPP];
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.javaapp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+// Detections of one frame stored struct-of-arrays style in preallocated primitive arrays.
+// The raw* arrays are filled by the interpreter, the remaining arrays hold the detections
+// that survived filtering, in frame pixel coordinates.
+public class DetectionBatch {
+
+    private final int rawCapacity;
+    private final int capacity;
+    private int size = 0;
+
+    // Model output tensors. Scores and classes are filled in place through their [1][N] wrappers,
+    // boxes come through a direct buffer and are bulk-copied into rawBoxes.
+    final float[][] scoreTensor;
+    final float[][] classTensor;
+    final ByteBuffer boxTensor;
+    private final FloatBuffer boxView;
+
+    // Raw model outputs: normalized [top, left, bottom, right] per detection
+    final float[] rawBoxes;
+    final float[] rawScores;
+    final float[] rawClasses;
+
+    // Accepted detections, in frame pixel coordinates
+    final float[] left;
+    final float[] top;
+    final float[] right;
+    final float[] bottom;
+    final float[] centerX;
+    final float[] centerY;
+    final float[] score;
+    final int[] classId;
+
+    public DetectionBatch(int capacity) {
+        this(capacity, capacity);
+    }
+
+    // rawCapacity is the number of detections the model outputs per run; capacity is how many
+    // accepted detections the batch can hold, which is larger when several crops are run per frame
+    public DetectionBatch(int rawCapacity, int capacity) {
+        this.rawCapacity = rawCapacity;
+        this.capacity = capacity;
+        scoreTensor = new float[1][rawCapacity];
+        classTensor = new float[1][rawCapacity];
+        boxTensor = ByteBuffer.allocateDirect(rawCapacity * 4 * 4);
+        boxTensor.order(ByteOrder.nativeOrder());
+        boxView = boxTensor.asFloatBuffer();
+
+        rawBoxes = new float[rawCapacity * 4];
+        rawScores = scoreTensor[0];
+        rawClasses = classTensor[0];
+
+        left = new float[capacity];
+        top = new float[capacity];
+        right = new float[capacity];
+        bottom = new float[capacity];
+        centerX = new float[capacity];
+        centerY = new float[capacity];
+        score = new float[capacity];
+        classId = new int[capacity];
+    }
+
+    // Copies the box tensor into rawBoxes; call after every interpreter run
+    public void readBoxes() {
+        boxView.rewind();
+        boxView.get(rawBoxes);
+        boxTensor.rewind();
+    }
+
+    // Drops all accepted detections
+    public void clear() {
+        size = 0;
+    }
+
+    // Accepts a detection given in frame pixel coordinates. Returns its index, or -1 if the batch is full.
+    public int add(float l, float t, float r, float b, float s, int cls) {
+        if (size == capacity) {
+            return -1;
+        }
+        int i = size++;
+        left[i] = l;
+        top[i] = t;
+        right[i] = r;
+        bottom[i] = b;
+        centerX[i] = (l + r) / 2;
+        centerY[i] = (t + b) / 2;
+        score[i] = s;
+        classId[i] = cls;
+        return i;
+    }
+
+    // Accepts raw detection i, scaling its normalized box to the given frame size
+    public int addRaw(int i, int frameWidth, int frameHeight) {
+        return addRaw(i, 0, 0, frameWidth, frameHeight);
+    }
+
+    // Accepts raw detection i of a run on a crop, mapping its normalized box back to frame pixels
+    public int addRaw(int i, int cropX, int cropY, int cropWidth, int cropHeight) {
+        int o = i * 4;
+        return add(cropX + rawBoxes[o + 1] * cropWidth, cropY + rawBoxes[o] * cropHeight,
+                cropX + rawBoxes[o + 3] * cropWidth, cropY + rawBoxes[o + 2] * cropHeight,
+                rawScores[i], (int) rawClasses[i]);
+    }
+
+    // Merges detections that describe the same object, e.g. one vehicle seen by two overlapping tiles
+    // or cut in two by a tile border. Two boxes are merged when their IoU exceeds iouThreshold or when
+    // the intersection covers more than containThreshold of the smaller box; the merged box is their
+    // union with the higher score and its class. Runs in place, O(n^2) over the accepted detections.
+    public void mergeOverlapping(float iouThreshold, float containThreshold) {
+        for (int i = 0; i < size; i++) {
+            boolean merged = true;
+            while (merged) {
+                merged = false;
+                for (int j = i + 1; j < size; j++) {
+                    if (!overlaps(i, j, iouThreshold, containThreshold)) {
+                        continue;
+                    }
+                    if (score[j] > score[i]) {
+                        score[i] = score[j];
+                        classId[i] = classId[j];
+                    }
+                    left[i] = Math.min(left[i], left[j]);
+                    top[i] = Math.min(top[i], top[j]);
+                    right[i] = Math.max(right[i], right[j]);
+                    bottom[i] = Math.max(bottom[i], bottom[j]);
+                    centerX[i] = (left[i] + right[i]) / 2;
+                    centerY[i] = (top[i] + bottom[i]) / 2;
+                    remove(j);
+                    merged = true; // The grown box may now overlap boxes it was already compared with
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean overlaps(int i, int j, float iouThreshold, float containThreshold) {
+        float intersection = Math.max(0, Math.min(right[i], right[j]) - Math.max(left[i], left[j]))
+                * Math.max(0, Math.min(bottom[i], bottom[j]) - Math.max(top[i], top[j]));
+        if (intersection <= 0) {
+            return false;
+        }
+        float areaI = width(i) * height(i);
+        float areaJ = width(j) * height(j);
+        return intersection / (areaI + areaJ - intersection) > iouThreshold
+                || intersection / Math.min(areaI, areaJ) > containThreshold;
+    }
+
+    // Removes detection j by moving the last detection into its slot
+    private void remove(int j) {
+        int last = --size;
+        left[j] = left[last];
+        top[j] = top[last];
+        right[j] = right[last];
+        bottom[j] = bottom[last];
+        centerX[j] = centerX[last];
+        centerY[j] = centerY[last];
+        score[j] = score[last];
+        classId[j] = classId[last];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int rawCapacity() {
+        return rawCapacity;
+    }
+
+    public float width(int i) {
+        return right[i] - left[i];
+    }
+
+    public float height(int i) {
+        return bottom[i] - top[i];
+    }
+}
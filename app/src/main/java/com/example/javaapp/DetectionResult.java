@@ -0,0 +1,67 @@
+package com.example.javaapp;
+
+// Immutable snapshot of one detector run, handed from the inference thread to the render path.
+// Coordinates are in the rotated frame the model sees; map*() converts them back to the camera frame.
+public class DetectionResult {
+
+    final long sequence; // Number of the frame this result was computed from
+    final long timestampNanos; // Capture time of that frame
+    final int rotatedWidth; // Width of the rotated frame, i.e. the height of the camera frame
+
+    // Detections of this frame
+    final int detectionCount;
+    final float[] left;
+    final float[] top;
+    final float[] right;
+    final float[] bottom;
+
+    // Confirmed vehicles after the tracker update
+    final TrackSnapshot tracks;
+
+    DetectionResult(long sequence, long timestampNanos, int rotatedWidth, DetectionBatch detections, TrackSnapshot tracks) {
+        this.sequence = sequence;
+        this.timestampNanos = timestampNanos;
+        this.rotatedWidth = rotatedWidth;
+        detectionCount = detections.size();
+        left = copyOf(detections.left, detectionCount);
+        top = copyOf(detections.top, detectionCount);
+        right = copyOf(detections.right, detectionCount);
+        bottom = copyOf(detections.bottom, detectionCount);
+        this.tracks = tracks;
+    }
+
+    private static float[] copyOf(float[] values, int count) {
+        float[] copy = new float[count];
+        System.arraycopy(values, 0, copy, 0, count);
+        return copy;
+    }
+
+    // Maps a rotated-frame x/y to camera-frame x (the rotation is a transpose followed by a horizontal flip)
+    float mapX(double rotatedX, double rotatedY) {
+        return (float) rotatedY;
+    }
+
+    float mapY(double rotatedX, double rotatedY) {
+        return (float) (rotatedWidth - rotatedX);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public int getDetectionCount() {
+        return detectionCount;
+    }
+
+    public int getVehicleCount() {
+        return tracks.count;
+    }
+
+    public TrackSnapshot getTracks() {
+        return tracks;
+    }
+}
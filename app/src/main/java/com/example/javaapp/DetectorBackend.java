@@ -0,0 +1,34 @@
+package com.example.javaapp;
+
+// An inference engine that runs the detection model on a prepared FrameContext.
+// Implementations read the RGB input tensor (ctx.inputBuffer / ctx.tensor) and fill the raw
+// outputs of ctx.detections.
+public interface DetectorBackend {
+
+    // Short, stable name used for logging and for caching the startup selection
+    String getName();
+
+    // Runs the model on the current input tensor of the context
+    void run(FrameContext ctx);
+
+    // Whether runBatch can take several crops in one invocation
+    default boolean supportsBatching() {
+        return false;
+    }
+
+    // Runs the model once on the first count slots of ctx.batch. May throw if the model turns out
+    // not to accept a batched input; callers then fall back to run().
+    default void runBatch(FrameContext ctx, int count) {
+        throw new UnsupportedOperationException(getName() + " does not support batching");
+    }
+
+    // Releases the interpreter/network and any delegates
+    void close();
+
+    // Creates a backend lazily, so candidates that are unsupported on a device can fail without side effects
+    interface Factory {
+        String getName();
+
+        DetectorBackend create() throws Exception;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.javaapp;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Reusable per-detector buffers for ObjectDetector.recognizeImage.
+// Everything is allocated once and only re-allocated when the frame geometry changes,
+// so the steady-state hot path does not allocate.
+public class FrameContext {
+
+    private final int inputSize;
+    private final int maxDetections;
+
+    // Geometry of the incoming (unrotated) camera frame the buffers are sized for
+    private int frameWidth = -1;
+    private int frameHeight = -1;
+
+    // Frame-sized buffers, re-allocated when the frame geometry changes
+    Mat transposed;
+    Mat rotated;
+    Mat restored;
+
+    // Model-input-sized buffers, allocated once
+    Mat resized;
+    Mat tensor; // RGB view over inputBuffer, written in place by cvtColor
+    final ByteBuffer inputBuffer;
+    final Object[] inputs;
+
+    // Model outputs, filled in place by the interpreter on every run
+    final DetectionBatch detections;
+    final Map<Integer, Object> outputs;
+
+    // Buffers for running several crops in one invocation, allocated on first use
+    TileBatch batch;
+
+    public FrameContext(int inputSize, int maxDetections) {
+        this(inputSize, maxDetections, maxDetections);
+    }
+
+    // maxAccepted bounds the detections kept per frame across all crops of that frame
+    public FrameContext(int inputSize, int maxDetections, int maxAccepted) {
+        this.inputSize = inputSize;
+        this.maxDetections = maxDetections;
+
+        inputBuffer = ByteBuffer.allocateDirect(inputSize * inputSize * 3);
+        inputBuffer.order(ByteOrder.nativeOrder());
+        inputs = new Object[]{inputBuffer};
+
+        detections = new DetectionBatch(maxDetections, maxAccepted);
+        outputs = new TreeMap<>();
+        outputs.put(0, detections.boxTensor);
+        outputs.put(1, detections.classTensor);
+        outputs.put(2, detections.scoreTensor);
+    }
+
+    // Makes sure the frame-sized buffers match the given frame, re-allocating only on a geometry change.
+    // Returns true if the buffers were (re-)allocated.
+    public boolean ensureFrameSize(int width, int height) {
+        if (width == frameWidth && height == frameHeight) {
+            return false;
+        }
+        frameWidth = width;
+        frameHeight = height;
+        allocateFrameBuffers(width, height);
+        return true;
+    }
+
+    // Replaces the buffers that depend on the frame geometry with ones sized for the RGBA frame, so
+    // transpose/flip write into them without reallocating and the storage of a larger previous
+    // geometry is given back at once
+    private void allocateFrameBuffers(int width, int height) {
+        if (transposed != null) {
+            releaseMat(transposed);
+            releaseMat(rotated);
+            releaseMat(restored);
+        }
+        transposed = newMat(width, height, CvType.CV_8UC4);
+        rotated = newMat(width, height, CvType.CV_8UC4);
+        restored = newMat(height, width, CvType.CV_8UC4);
+        ensureTensorBuffers();
+    }
+
+    // Native allocation and release of frame buffers, separate so tests can follow them without natives
+    Mat newMat(int rows, int cols, int type) {
+        return new Mat(rows, cols, type);
+    }
+
+    void releaseMat(Mat mat) {
+        mat.release();
+    }
+
+    // Allocates the model-input-sized Mats once
+    void ensureTensorBuffers() {
+        if (tensor != null) {
+            return;
+        }
+        resized = new Mat(inputSize, inputSize, CvType.CV_8UC4);
+        tensor = new Mat(inputSize, inputSize, CvType.CV_8UC3, inputBuffer);
+    }
+
+    // Makes sure batch buffers with at least the given number of slots exist
+    public TileBatch ensureBatch(int slots) {
+        if (batch == null || batch.getSlots() < slots) {
+            if (batch != null) {
+                batch.release();
+            }
+            batch = new TileBatch(slots, inputSize, maxDetections);
+        }
+        return batch;
+    }
+
+    // Resets the per-frame state before a new frame is processed
+    public void beginFrame() {
+        detections.clear();
+        detections.boxTensor.rewind();
+        inputBuffer.rewind();
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getMaxDetections() {
+        return maxDetections;
+    }
+
+    // Releases the native memory held by the frame buffers
+    public void release() {
+        if (transposed != null) {
+            releaseMat(transposed);
+            releaseMat(rotated);
+            releaseMat(restored);
+            transposed = null;
+            rotated = null;
+            restored = null;
+        }
+        if (tensor != null) {
+            resized.release();
+            tensor.release();
+            resized = null;
+            tensor = null;
+        }
+        if (batch != null) {
+            batch.release();
+            batch = null;
+        }
+        frameWidth = -1;
+        frameHeight = -1;
+    }
+}
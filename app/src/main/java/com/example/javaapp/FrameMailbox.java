@@ -0,0 +1,87 @@
+package com.example.javaapp;
+
+// Single-slot "latest frame wins" hand-off between one producer and one consumer.
+// The producer copies into the pending slot; a frame that is overwritten before the consumer
+// takes it counts as dropped. Both slots are preallocated and swapped, so nothing is allocated per frame.
+// The slots belong to the mailbox until it is closed and the consumer has stopped; then release hands
+// them to the owner to free.
+public class FrameMailbox<T> {
+
+    // Copies a frame into a preallocated slot
+    public interface Copier<T> {
+        void copy(T source, T slot);
+    }
+
+    // Frees the resources of a slot
+    public interface Releaser<T> {
+        void release(T slot);
+    }
+
+    private final Copier<T> copier;
+    private T pending;
+    private T taken;
+    private boolean hasPending = false;
+    private boolean closed = false;
+    private long offered = 0;
+    private long dropped = 0;
+
+    public FrameMailbox(T pendingSlot, T takenSlot, Copier<T> copier) {
+        this.pending = pendingSlot;
+        this.taken = takenSlot;
+        this.copier = copier;
+    }
+
+    // Called by the producer; never blocks on the consumer's processing
+    public synchronized void offer(T frame) {
+        if (closed) {
+            return;
+        }
+        offered++;
+        if (hasPending) {
+            dropped++;
+        }
+        copier.copy(frame, pending);
+        hasPending = true;
+        notifyAll();
+    }
+
+    // Called by the consumer; blocks until a frame is available. The returned slot stays valid
+    // until the next take(). Returns null once the mailbox is closed.
+    public synchronized T take() throws InterruptedException {
+        while (!hasPending && !closed) {
+            wait();
+        }
+        if (closed) {
+            return null;
+        }
+        T frame = pending;
+        pending = taken;
+        taken = frame;
+        hasPending = false;
+        return frame;
+    }
+
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    // Releases both slots. Only valid after close() once the consumer no longer uses the frame it took.
+    public synchronized void release(Releaser<T> releaser) {
+        if (!closed) {
+            throw new IllegalStateException("Mailbox is still open");
+        }
+        releaser.release(pending);
+        releaser.release(taken);
+        hasPending = false;
+    }
+
+    public synchronized long getOffered() {
+        return offered;
+    }
+
+    // Frames overwritten before the consumer took them
+    public synchronized long getDropped() {
+        return dropped;
+    }
+}
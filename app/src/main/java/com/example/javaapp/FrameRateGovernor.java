@@ -0,0 +1,118 @@
+package com.example.javaapp;
+
+// Picks the frame processing rate from measured per-frame latency and the number of active tracks.
+// The rate goes to maxFps while vehicles are present, drops to minFps once the scene has been empty
+// for a while, and is capped to what the device actually sustains when processing falls behind.
+public class FrameRateGovernor {
+
+    // Why the last rate change happened
+    public enum Reason { STARTUP, VEHICLES_PRESENT, SCENE_EMPTY, FALLING_BEHIND, CAUGHT_UP }
+
+    private static final double LATENCY_SMOOTHING = 0.2; // EWMA weight of the newest latency sample
+    private static final double HEADROOM = 0.9; // Only plan for 90% of the measured throughput
+    private static final int EMPTY_FRAMES_BEFORE_LOWERING = 15; // Hysteresis before slowing down
+
+    private final int minFps;
+    private final int maxFps;
+
+    private int frameRate;
+    private double latencyMillis = 0; // Smoothed processing latency per frame
+    private int emptyFrames = 0;
+
+    // Decision metrics
+    private long frames = 0;
+    private long increases = 0;
+    private long decreases = 0;
+    private long behindFrames = 0; // Frames that took longer than the current frame interval
+    private Reason lastReason = Reason.STARTUP;
+
+    public FrameRateGovernor(int minFps, int maxFps) {
+        if (minFps < 1 || maxFps < minFps) {
+            throw new IllegalArgumentException("Invalid frame rate bounds " + minFps + ".." + maxFps);
+        }
+        this.minFps = minFps;
+        this.maxFps = maxFps;
+        this.frameRate = maxFps;
+    }
+
+    // Records one processed frame and returns the frame rate to use from now on
+    public synchronized int update(long processingNanos, int activeTracks) {
+        frames++;
+        double sampleMillis = processingNanos / 1e6;
+        latencyMillis = frames == 1 ? sampleMillis : latencyMillis + LATENCY_SMOOTHING * (sampleMillis - latencyMillis);
+        if (sampleMillis > 1000.0 / frameRate) {
+            behindFrames++;
+        }
+
+        int desired;
+        Reason reason;
+        if (activeTracks > 0) {
+            emptyFrames = 0;
+            desired = maxFps;
+            reason = Reason.VEHICLES_PRESENT;
+        } else if (++emptyFrames > EMPTY_FRAMES_BEFORE_LOWERING) {
+            desired = minFps;
+            reason = Reason.SCENE_EMPTY;
+        } else {
+            desired = frameRate;
+            reason = lastReason;
+        }
+
+        int sustainable = latencyMillis > 0 ? (int) (1000.0 / latencyMillis * HEADROOM) : maxFps;
+        if (desired > sustainable) {
+            desired = sustainable;
+            reason = Reason.FALLING_BEHIND;
+        } else if (lastReason == Reason.FALLING_BEHIND && desired > frameRate) {
+            reason = Reason.CAUGHT_UP;
+        }
+        desired = Math.max(minFps, Math.min(maxFps, desired));
+
+        if (desired > frameRate) {
+            increases++;
+            lastReason = reason;
+        } else if (desired < frameRate) {
+            decreases++;
+            lastReason = reason;
+        }
+        frameRate = desired;
+        return frameRate;
+    }
+
+    public synchronized int getFrameRate() {
+        return frameRate;
+    }
+
+    // Interval between processed frames at the current rate
+    public synchronized long getFrameIntervalMillis() {
+        return 1000L / frameRate;
+    }
+
+    public synchronized double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public synchronized long getIncreases() {
+        return increases;
+    }
+
+    public synchronized long getDecreases() {
+        return decreases;
+    }
+
+    public synchronized long getBehindFrames() {
+        return behindFrames;
+    }
+
+    public synchronized Reason getLastReason() {
+        return lastReason;
+    }
+
+    public synchronized String getMetrics() {
+        return "fps=" + frameRate
+                + " latency_ms=" + String.format("%.1f", latencyMillis)
+                + " increases=" + increases
+                + " decreases=" + decreases
+                + " behind_frames=" + behindFrames
+                + " reason=" + lastReason;
+    }
+}
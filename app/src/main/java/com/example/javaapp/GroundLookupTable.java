@@ -0,0 +1,158 @@
+package com.example.javaapp;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// GroundPlane projections precomputed on a grid of nodes every cellSize pixels over the rotated frame,
+// so projecting a point is a cell lookup and a bilinear interpolation instead of a homography. The
+// table is built once per calibration and frame size and can be written to and read back from a
+// stream, so a calibrated camera starts without recomputing it.
+// Points outside the grid or in cells that reach beyond the horizon fall back to the exact projection.
+// Bilinear interpolation of a homography is exact at the nodes; between them its error grows with
+// the cell size and the perspective, so cells should stay small where the road recedes.
+public class GroundLookupTable {
+
+    private static final int MAGIC = 0x47524e44; // "GRND"
+    private static final int VERSION = 1;
+    private static final int MAX_SIZE = 1 << 14; // Frame side limit, also guarding reads of corrupt files
+
+    private final GroundPlane plane;
+    private final int width;
+    private final int height;
+    private final int cellSize;
+    private final int columns; // Nodes per row
+    private final int rows;
+    private final float[] groundX; // Road position of each node, NaN beyond the horizon
+    private final float[] groundY;
+
+    public GroundLookupTable(GroundPlane plane, int width, int height, int cellSize) {
+        this(plane, width, height, cellSize, true);
+    }
+
+    // Allocates the grid, filling it from the plane if project is set and leaving it to the caller otherwise
+    private GroundLookupTable(GroundPlane plane, int width, int height, int cellSize, boolean project) {
+        if (width < 1 || height < 1 || cellSize < 1 || width > MAX_SIZE || height > MAX_SIZE) {
+            throw new IllegalArgumentException("Invalid lookup table size " + width + "x" + height + " / " + cellSize);
+        }
+        this.plane = plane;
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        // Nodes reach at least one cell past the last pixel so every point in the frame has four corners
+        columns = width / cellSize + 2;
+        rows = height / cellSize + 2;
+        groundX = new float[columns * rows];
+        groundY = new float[columns * rows];
+        if (!project) {
+            return;
+        }
+        double[] out = new double[2];
+        for (int j = 0; j < rows; j++) {
+            for (int i = 0; i < columns; i++) {
+                int n = j * columns + i;
+                if (plane.project(i * cellSize, j * cellSize, out)) {
+                    groundX[n] = (float) out[0];
+                    groundY[n] = (float) out[1];
+                } else {
+                    groundX[n] = Float.NaN;
+                    groundY[n] = Float.NaN;
+                }
+            }
+        }
+    }
+
+    // Projects a frame point onto the road like GroundPlane.project
+    public boolean project(double x, double y, double[] out) {
+        double fx = x / cellSize;
+        double fy = y / cellSize;
+        int i = (int) Math.floor(fx);
+        int j = (int) Math.floor(fy);
+        if (i < 0 || j < 0 || i >= columns - 1 || j >= rows - 1) {
+            return plane.project(x, y, out);
+        }
+        int a = j * columns + i;
+        int d = a + columns;
+        float x00 = groundX[a];
+        float x10 = groundX[a + 1];
+        float x01 = groundX[d];
+        float x11 = groundX[d + 1];
+        if (Float.isNaN(x00) || Float.isNaN(x10) || Float.isNaN(x01) || Float.isNaN(x11)) {
+            return plane.project(x, y, out);
+        }
+        double u = fx - i;
+        double v = fy - j;
+        double top = x00 + u * (x10 - x00);
+        double bottom = x01 + u * (x11 - x01);
+        out[0] = top + v * (bottom - top);
+        top = groundY[a] + u * (groundY[a + 1] - groundY[a]);
+        bottom = groundY[d] + u * (groundY[d + 1] - groundY[d]);
+        out[1] = top + v * (bottom - top);
+        return true;
+    }
+
+    // Whether the table was built for this calibration, frame size and granularity
+    public boolean matches(GroundPlane plane, int width, int height, int cellSize) {
+        return width == this.width && height == this.height && cellSize == this.cellSize
+                && (plane == this.plane || Arrays.equals(plane.homography, this.plane.homography));
+    }
+
+    public GroundPlane getPlane() {
+        return plane;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    // Writes the calibration and the table; read restores both
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        for (double h : plane.homography) {
+            out.writeDouble(h);
+        }
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(cellSize);
+        for (int n = 0; n < groundX.length; n++) {
+            out.writeFloat(groundX[n]);
+            out.writeFloat(groundY[n]);
+        }
+        out.flush();
+    }
+
+    public static GroundLookupTable read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a ground lookup table of version " + VERSION);
+        }
+        double[] homography = new double[9];
+        for (int k = 0; k < 9; k++) {
+            homography[k] = in.readDouble();
+        }
+        GroundLookupTable table;
+        try {
+            table = new GroundLookupTable(new GroundPlane(homography), in.readInt(), in.readInt(), in.readInt(), false);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt ground lookup table", e);
+        }
+        for (int n = 0; n < table.groundX.length; n++) {
+            table.groundX[n] = in.readFloat();
+            table.groundY[n] = in.readFloat();
+        }
+        return table;
+    }
+}
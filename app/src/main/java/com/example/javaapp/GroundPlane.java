@@ -0,0 +1,74 @@
+package com.example.javaapp;
+
+import org.opencv.calib3d.Calib3d;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+
+// Metric calibration of the road surface: a homography from rotated-frame pixels to road coordinates
+// in meters. It is computed once from operator-marked road points with known positions; projecting a
+// point afterwards is a handful of multiplications and one division, cheap enough for every track
+// update. Vehicles are placed on the road by the bottom-center of their box, where they touch it.
+public class GroundPlane {
+
+    final double[] homography; // Frame pixels -> road meters, row-major 3x3
+
+    public GroundPlane(double[] homography) {
+        if (homography == null || homography.length != 9) {
+            throw new IllegalArgumentException("Homography must be a 3x3 row-major matrix");
+        }
+        PerspectiveRectifier.invert(homography); // Rejects singular matrices
+        this.homography = homography.clone();
+    }
+
+    // Fits the homography to four or more correspondences: imagePoints are [x0, y0, x1, y1, ...] in
+    // rotated-frame pixels, roadPoints the same points on the road in meters, e.g. the corners of lane
+    // markings of known length and spacing. Uses all points in a least-squares fit.
+    public static GroundPlane fromCorrespondences(double[] imagePoints, double[] roadPoints) {
+        if (imagePoints.length != roadPoints.length || imagePoints.length % 2 != 0 || imagePoints.length < 8) {
+            throw new IllegalArgumentException("Need four or more matching image and road points");
+        }
+        Point[] image = new Point[imagePoints.length / 2];
+        Point[] road = new Point[image.length];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = new Point(imagePoints[i * 2], imagePoints[i * 2 + 1]);
+            road[i] = new Point(roadPoints[i * 2], roadPoints[i * 2 + 1]);
+        }
+        MatOfPoint2f src = new MatOfPoint2f(image);
+        MatOfPoint2f dst = new MatOfPoint2f(road);
+        Mat h = Calib3d.findHomography(src, dst);
+        try {
+            if (h.empty()) {
+                throw new IllegalArgumentException("Road points are degenerate, e.g. three of them on one line");
+            }
+            double[] homography = new double[9];
+            for (int r = 0; r < 3; r++) {
+                for (int c = 0; c < 3; c++) {
+                    homography[r * 3 + c] = h.get(r, c)[0];
+                }
+            }
+            return new GroundPlane(homography);
+        } finally {
+            h.release();
+            dst.release();
+            src.release();
+        }
+    }
+
+    // Projects a frame point onto the road, writing meters to out[0] and out[1]. Returns false for
+    // points on or above the horizon, which have no road position.
+    public boolean project(double x, double y, double[] out) {
+        double[] h = homography;
+        double w = h[6] * x + h[7] * y + h[8];
+        if (!(w > 1e-12)) {
+            return false;
+        }
+        out[0] = (h[0] * x + h[1] * y + h[2]) / w;
+        out[1] = (h[3] * x + h[4] * y + h[5]) / w;
+        return true;
+    }
+
+    public double[] getHomography() {
+        return homography.clone();
+    }
+}
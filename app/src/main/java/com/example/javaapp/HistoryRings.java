@@ -0,0 +1,262 @@
+package com.example.javaapp;
+
+import java.util.Arrays;
+
+// Fixed-capacity rings of timestamped bounding boxes, one per track, stored struct-of-arrays style:
+// ring r owns entries [r * capacity, (r + 1) * capacity) of the shared arrays, so appending is O(1)
+// and never allocates. Entries are addressed by age: 0 is the newest, size - 1 the oldest.
+// Least-squares fits of the box center x and, for entries with a road position, of both road
+// coordinates over time are kept in step with each window as WindowRegression sums, together with
+// the sum of the box widths, so velocities and the mean width are read in O(1). Fit times are
+// relative to a per-ring origin that is moved to the oldest entry and the sums recomputed every time
+// a full ring wraps around, so they stay small however long a track lives and rounding left by
+// removed samples never accumulates, for an amortized O(1) per append.
+// TrackHistory keeps a single ring; TrackTable keeps one per slot.
+public class HistoryRings {
+
+    // WindowRegression states per ring
+    private static final int FIT_X = 0; // Box center x
+    private static final int FIT_GROUND_X = 1; // Road position, only entries that have one
+    private static final int FIT_GROUND_Y = 2;
+    private static final int FITS = 3;
+
+    private final int capacity;
+
+    long[] times = new long[0];
+    float[] boxes = new float[0]; // [left, top, right, bottom] per entry
+    float[] ground = new float[0]; // Road [x, y] per entry, NaN where it has none
+    int[] head = new int[0]; // Ring index the next entry of the ring goes into
+    int[] size = new int[0];
+    long[] origin = new long[0]; // Fit times are relative to this, at or before the oldest entry
+    double[] fits = new double[0]; // FITS * WindowRegression.STATE_SIZE values per ring
+    double[] widthSum = new double[0];
+
+    public HistoryRings(int rings, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid history capacity " + capacity);
+        }
+        this.capacity = capacity;
+        resize(rings);
+    }
+
+    // Grows or shrinks the number of rings, keeping the contents of those that remain
+    public void resize(int newRings) {
+        times = Arrays.copyOf(times, newRings * capacity);
+        boxes = Arrays.copyOf(boxes, newRings * capacity * 4);
+        ground = Arrays.copyOf(ground, newRings * capacity * 2);
+        head = Arrays.copyOf(head, newRings);
+        size = Arrays.copyOf(size, newRings);
+        origin = Arrays.copyOf(origin, newRings);
+        fits = Arrays.copyOf(fits, newRings * FITS * WindowRegression.STATE_SIZE);
+        widthSum = Arrays.copyOf(widthSum, newRings);
+    }
+
+    public void clear(int ring) {
+        head[ring] = 0;
+        size[ring] = 0;
+        for (int which = 0; which < FITS; which++) {
+            WindowRegression.clear(fits, fit(ring, which));
+        }
+        widthSum[ring] = 0;
+    }
+
+    private static int fit(int ring, int which) {
+        return (ring * FITS + which) * WindowRegression.STATE_SIZE;
+    }
+
+    // Appends an entry with its road position (NaN if it has none), overwriting the oldest one when full
+    public void append(int ring, long time, float left, float top, float right, float bottom,
+                       float groundX, float groundY) {
+        int entry = ring * capacity + head[ring];
+        if (size[ring] == 0) {
+            origin[ring] = time;
+        } else if (size[ring] == capacity) {
+            // The oldest entry is about to be overwritten
+            removeSamples(ring, entry);
+        }
+        times[entry] = time;
+        int e = entry * 4;
+        boxes[e] = left;
+        boxes[e + 1] = top;
+        boxes[e + 2] = right;
+        boxes[e + 3] = bottom;
+        ground[entry * 2] = groundX;
+        ground[entry * 2 + 1] = groundY;
+        addSamples(ring, entry);
+        if (size[ring] < capacity) {
+            size[ring]++;
+        }
+        if (head[ring] + 1 < capacity) {
+            head[ring]++;
+        } else {
+            head[ring] = 0;
+            if (size[ring] == capacity) {
+                refit(ring);
+            }
+        }
+    }
+
+    // Moves the fit origin to the oldest entry and recomputes the sums from the entries
+    private void refit(int ring) {
+        int count = size[ring];
+        origin[ring] = times[entry(ring, count - 1)];
+        for (int which = 0; which < FITS; which++) {
+            WindowRegression.clear(fits, fit(ring, which));
+        }
+        widthSum[ring] = 0;
+        for (int age = count - 1; age >= 0; age--) {
+            addSamples(ring, entry(ring, age));
+        }
+    }
+
+    // Replaces the road position of an entry, e.g. after a new calibration
+    public void setGround(int ring, int age, float groundX, float groundY) {
+        int entry = entry(ring, age);
+        long t = times[entry] - origin[ring];
+        if (!Float.isNaN(ground[entry * 2])) {
+            WindowRegression.remove(fits, fit(ring, FIT_GROUND_X), t, ground[entry * 2]);
+            WindowRegression.remove(fits, fit(ring, FIT_GROUND_Y), t, ground[entry * 2 + 1]);
+        }
+        ground[entry * 2] = groundX;
+        ground[entry * 2 + 1] = groundY;
+        if (!Float.isNaN(groundX)) {
+            WindowRegression.add(fits, fit(ring, FIT_GROUND_X), t, groundX);
+            WindowRegression.add(fits, fit(ring, FIT_GROUND_Y), t, groundY);
+        }
+    }
+
+    private void addSamples(int ring, int entry) {
+        long t = times[entry] - origin[ring];
+        int e = entry * 4;
+        WindowRegression.add(fits, fit(ring, FIT_X), t, (boxes[e] + boxes[e + 2]) / 2);
+        widthSum[ring] += boxes[e + 2] - boxes[e];
+        if (!Float.isNaN(ground[entry * 2])) {
+            WindowRegression.add(fits, fit(ring, FIT_GROUND_X), t, ground[entry * 2]);
+            WindowRegression.add(fits, fit(ring, FIT_GROUND_Y), t, ground[entry * 2 + 1]);
+        }
+    }
+
+    private void removeSamples(int ring, int entry) {
+        long t = times[entry] - origin[ring];
+        int e = entry * 4;
+        WindowRegression.remove(fits, fit(ring, FIT_X), t, (boxes[e] + boxes[e + 2]) / 2);
+        widthSum[ring] -= boxes[e + 2] - boxes[e];
+        if (!Float.isNaN(ground[entry * 2])) {
+            WindowRegression.remove(fits, fit(ring, FIT_GROUND_X), t, ground[entry * 2]);
+            WindowRegression.remove(fits, fit(ring, FIT_GROUND_Y), t, ground[entry * 2 + 1]);
+        }
+    }
+
+    // Copies the ring, oldest first, into the arrays and returns the number of entries
+    public int export(int ring, long[] outTimes, float[] outBoxes) {
+        int count = size[ring];
+        for (int i = 0; i < count; i++) {
+            int entry = entry(ring, count - 1 - i);
+            outTimes[i] = times[entry];
+            System.arraycopy(boxes, entry * 4, outBoxes, i * 4, 4);
+        }
+        return count;
+    }
+
+    // Entry index of the entry with the given age (0 is the newest)
+    public int entry(int ring, int age) {
+        if (age < 0 || age >= size[ring]) {
+            throw new IndexOutOfBoundsException("Age " + age + " outside history of " + size[ring]);
+        }
+        int index = head[ring] - 1 - age;
+        return ring * capacity + (index < 0 ? index + capacity : index);
+    }
+
+    public int size(int ring) {
+        return size[ring];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Least-squares velocity of the box center along x over the window, px per time unit
+    public double slopeX(int ring) {
+        return WindowRegression.slope(fits, fit(ring, FIT_X));
+    }
+
+    public double slopeStandardErrorX(int ring) {
+        return WindowRegression.slopeStandardError(fits, fit(ring, FIT_X));
+    }
+
+    public double confidenceX(int ring) {
+        return WindowRegression.confidence(fits, fit(ring, FIT_X));
+    }
+
+    public double meanWidth(int ring) {
+        return size[ring] > 0 ? widthSum[ring] / size[ring] : 0;
+    }
+
+    // Number of entries with a road position
+    public int groundCount(int ring) {
+        return WindowRegression.count(fits, fit(ring, FIT_GROUND_X));
+    }
+
+    // Least-squares speed over the road across the window, meters per time unit
+    public double groundSpeed(int ring) {
+        return Math.hypot(WindowRegression.slope(fits, fit(ring, FIT_GROUND_X)),
+                WindowRegression.slope(fits, fit(ring, FIT_GROUND_Y)));
+    }
+
+    // Confidence in groundSpeed in [0, 1], from the standard errors of both fits propagated to the
+    // speed like WindowRegression.confidence does for one coordinate
+    public double groundSpeedConfidence(int ring) {
+        int fx = fit(ring, FIT_GROUND_X);
+        int fy = fit(ring, FIT_GROUND_Y);
+        double vx = WindowRegression.slope(fits, fx);
+        double vy = WindowRegression.slope(fits, fy);
+        double speed = Math.hypot(vx, vy);
+        double seX = WindowRegression.slopeStandardError(fits, fx);
+        double seY = WindowRegression.slopeStandardError(fits, fy);
+        if (Double.isInfinite(seX) || Double.isInfinite(seY) || !(speed > 0)) {
+            return 0;
+        }
+        double se = Math.hypot(vx * seX, vy * seY) / speed;
+        return speed / (speed + se);
+    }
+
+    public long time(int ring, int age) {
+        return times[entry(ring, age)];
+    }
+
+    public float left(int ring, int age) {
+        return boxes[entry(ring, age) * 4];
+    }
+
+    public float top(int ring, int age) {
+        return boxes[entry(ring, age) * 4 + 1];
+    }
+
+    public float right(int ring, int age) {
+        return boxes[entry(ring, age) * 4 + 2];
+    }
+
+    public float bottom(int ring, int age) {
+        return boxes[entry(ring, age) * 4 + 3];
+    }
+
+    public float width(int ring, int age) {
+        int e = entry(ring, age) * 4;
+        return boxes[e + 2] - boxes[e];
+    }
+
+    public float height(int ring, int age) {
+        int e = entry(ring, age) * 4;
+        return boxes[e + 3] - boxes[e + 1];
+    }
+
+    public float centerX(int ring, int age) {
+        int e = entry(ring, age) * 4;
+        return (boxes[e] + boxes[e + 2]) / 2;
+    }
+
+    public float centerY(int ring, int age) {
+        int e = entry(ring, age) * 4;
+        return (boxes[e + 1] + boxes[e + 3]) / 2;
+    }
+}
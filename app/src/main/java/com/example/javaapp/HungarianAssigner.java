@@ -0,0 +1,139 @@
+package com.example.javaapp;
+
+import java.util.Arrays;
+
+// Globally optimal one-to-one assignment of rows (detections) to columns (tracks) with the Hungarian
+// algorithm in its shortest-augmenting-path form, O(n^3) for n = max(rows, cols).
+// The cost matrix is padded to a square with the gate cost; any pair left at or above the gate is
+// reported as unassigned. All arrays are reused across frames and only grow with the scene size.
+public class HungarianAssigner {
+
+    private final double gateCost;
+
+    private int rows;
+    private int cols;
+    private int n; // Side of the padded square matrix
+
+    private double[] cost = new double[0]; // Row-major n x n
+    private int[] rowAssignment = new int[0];
+
+    // Solver state, 1-based with a virtual row/column 0
+    private double[] u = new double[1];
+    private double[] v = new double[1];
+    private int[] match = new int[1]; // Column -> row
+    private int[] way = new int[1];
+    private double[] minv = new double[1];
+    private boolean[] used = new boolean[1];
+
+    // Pairs costing gateCost or more are never reported as matched
+    public HungarianAssigner(double gateCost) {
+        this.gateCost = gateCost;
+    }
+
+    // Starts a new problem with every pair gated; set the allowed pairs with setCost
+    public void begin(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        n = Math.max(rows, cols);
+        if (cost.length < n * n) {
+            cost = new double[n * n];
+        }
+        if (rowAssignment.length < rows) {
+            rowAssignment = new int[Math.max(rows, rowAssignment.length * 2)];
+        }
+        if (u.length < n + 1) {
+            int size = Math.max(n + 1, u.length * 2);
+            u = new double[size];
+            v = new double[size];
+            match = new int[size];
+            way = new int[size];
+            minv = new double[size];
+            used = new boolean[size];
+        }
+        Arrays.fill(cost, 0, n * n, gateCost);
+    }
+
+    public void setCost(int row, int col, double value) {
+        cost[row * n + col] = value;
+    }
+
+    public double getCost(int row, int col) {
+        return cost[row * n + col];
+    }
+
+    // Solves the current problem; read the result with getAssignment
+    public void solve() {
+        Arrays.fill(u, 0, n + 1, 0);
+        Arrays.fill(v, 0, n + 1, 0);
+        Arrays.fill(match, 0, n + 1, 0);
+        Arrays.fill(way, 0, n + 1, 0);
+
+        for (int i = 1; i <= n; i++) {
+            match[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, 0, n + 1, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, 0, n + 1, false);
+            // Grow a shortest alternating path from row i until it reaches a free column
+            do {
+                used[j0] = true;
+                int i0 = match[j0];
+                int rowOffset = (i0 - 1) * n - 1;
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= n; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double reduced = cost[rowOffset + j] - u[i0] - v[j];
+                    if (reduced < minv[j]) {
+                        minv[j] = reduced;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= n; j++) {
+                    if (used[j]) {
+                        u[match[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (match[j0] != 0);
+            // Flip the path
+            do {
+                int j1 = way[j0];
+                match[j0] = match[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        for (int r = 0; r < rows; r++) {
+            rowAssignment[r] = -1;
+        }
+        for (int j = 1; j <= n; j++) {
+            int r = match[j] - 1;
+            int c = j - 1;
+            if (r < rows && c < cols && cost[r * n + c] < gateCost) {
+                rowAssignment[r] = c;
+            }
+        }
+    }
+
+    // Column assigned to the row by the last solve, or -1 if it stayed unmatched
+    public int getAssignment(int row) {
+        return rowAssignment[row];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
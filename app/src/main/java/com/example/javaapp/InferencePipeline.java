@@ -0,0 +1,143 @@
+package com.example.javaapp;
+
+import android.util.Log;
+
+import org.opencv.core.Mat;
+
+// Three-stage camera pipeline: the camera callback drops frames into a latest-frame-wins mailbox,
+// a dedicated thread runs the detector on whatever frame is newest, and the render path draws the
+// most recent result onto every displayed frame. Display stays at camera rate while detection runs
+// as fast as the device allows.
+public class InferencePipeline {
+
+    private static final String TAG = "InferencePipeline";
+
+    private final ObjectDetector detector;
+    private final FrameMailbox<CameraFrame> mailbox;
+    private Thread inferenceThread;
+    private volatile DetectionResult latestResult;
+
+    // Per-stage counters, written by one thread each and read for stats
+    private volatile long inferred = 0; // Frames the detector ran on
+    private volatile long resultsDropped = 0; // Results replaced before they were ever rendered
+    private volatile long rendered = 0; // Frames drawn by the render path
+    private volatile long staleRenders = 0; // Rendered frames that reused an already drawn result
+    private volatile long lastRenderedSequence = -1;
+
+    public InferencePipeline(ObjectDetector detector) {
+        this.detector = detector;
+        this.mailbox = new FrameMailbox<>(new CameraFrame(), new CameraFrame(), new FrameMailbox.Copier<CameraFrame>() {
+            @Override
+            public void copy(CameraFrame source, CameraFrame slot) {
+                source.copyTo(slot);
+            }
+        });
+    }
+
+    public void start() {
+        inferenceThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runInference();
+            }
+        }, TAG);
+        inferenceThread.start();
+    }
+
+    // Stops the inference thread and, once it has finished with its frame, frees the mailbox slots
+    public void stop() {
+        mailbox.close();
+        if (inferenceThread != null) {
+            inferenceThread.interrupt();
+            try {
+                inferenceThread.join();
+            } catch (InterruptedException e) {
+                // The thread may still be using a slot, so it keeps its Mats
+                Thread.currentThread().interrupt();
+                Log.d(TAG, getStats());
+                return;
+            }
+            inferenceThread = null;
+        }
+        mailbox.release(new FrameMailbox.Releaser<CameraFrame>() {
+            @Override
+            public void release(CameraFrame slot) {
+                slot.release();
+            }
+        });
+        Log.d(TAG, getStats());
+    }
+
+    private void runInference() {
+        try {
+            CameraFrame frame;
+            while ((frame = mailbox.take()) != null) {
+                long start = System.nanoTime();
+                DetectionResult previous = latestResult;
+                DetectionResult result = detector.detect(frame.rgba, frame.gray, frame.timestampNanos);
+                if (previous != null && previous.sequence > lastRenderedSequence) {
+                    resultsDropped++;
+                }
+                latestResult = result;
+                inferred++;
+
+                // Pace the detector to the rate the governor picked; newer frames keep replacing the mailbox slot
+                long remainingMillis = detector.getFrameRateGovernor().getFrameIntervalMillis()
+                        - (System.nanoTime() - start) / 1000000;
+                if (remainingMillis > 0) {
+                    Thread.sleep(remainingMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Stopped
+        }
+    }
+
+    // Camera stage: hand the frame to the inference thread without waiting for it
+    public void submit(CameraFrame frame) {
+        mailbox.offer(frame);
+    }
+
+    // Render stage: draw the newest available result onto the displayed frame
+    public Mat render(Mat rgba) {
+        DetectionResult result = latestResult;
+        rendered++;
+        if (result == null) {
+            return rgba;
+        }
+        if (result.sequence == lastRenderedSequence) {
+            staleRenders++;
+        }
+        lastRenderedSequence = result.sequence;
+        detector.drawResult(rgba, result);
+        return rgba;
+    }
+
+    public long getFramesDroppedAtCapture() {
+        return mailbox.getDropped();
+    }
+
+    public long getResultsDropped() {
+        return resultsDropped;
+    }
+
+    public long getStaleRenders() {
+        return staleRenders;
+    }
+
+    public String getStats() {
+        TrackSnapshot tracks = detector.getTrackSnapshot();
+        return "offered=" + mailbox.getOffered()
+                + " capture_dropped=" + mailbox.getDropped()
+                + " inferred=" + inferred
+                + " results_dropped=" + resultsDropped
+                + " rendered=" + rendered
+                + " stale_renders=" + staleRenders
+                + " tracks=" + tracks.getActiveTracks()
+                + " flow_tracked=" + tracks.getFramesTracked()
+                + " early_redetections=" + tracks.getEarlyRedetections()
+                + " reidentified=" + tracks.getReidentified()
+                + " violations=" + tracks.getViolations()
+                + " governor: " + detector.getFrameRateGovernor().getMetrics();
+    }
+}
@@ -60,7 +60,7 @@ public class MainActivity extends AppCompatActivity {
     private ImageView imageView;
 
     private ObjectDetector objectDetector;
-    public static int frameRate = 30; // Frame rate in frames per second
+    private static final int DEFAULT_FRAME_RATE = 30; // Frame rate in frames per second until the governor has measured
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -74,7 +74,7 @@ public class MainActivity extends AppCompatActivity {
         image_button = findViewById(R.id.image_button);
 
         try{
-            objectDetector=new ObjectDetector(getAssets(),"model.tflite","labelmap.txt",300);
+            objectDetector=new ObjectDetector(getAssets(),"model.tflite","labelmap.txt",300,getCacheDir(),getFilesDir());
             Log.d("MainActivity","Model is successfully loaded");
         }
         catch (IOException e){
@@ -115,7 +115,7 @@ public class MainActivity extends AppCompatActivity {
 
         // Initialize SpeedEstimator with a frame rate, e.g., 30 frames per second
         //change the 30 to be an int variable equal to 30.
-        speedEstimator = new SpeedEstimator(frameRate);
+        speedEstimator = new SpeedEstimator(currentFrameRate());
 
         handler = new Handler();
         sendDataRunnable = new Runnable() {
@@ -205,7 +205,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private MediaMetadataRetriever retriever;
-    private int currentFrame = 0; // Current frame index
+    private long videoTimeUs = 0; // Presentation time of the next frame to process, in microseconds
 
     private void playIMGVideo() {
         Log.w("WE R IN PLAYIMGVIDEO FUNCTION", "WE IN ");
@@ -224,7 +224,9 @@ public class MainActivity extends AppCompatActivity {
 
         // Start looping through frames
         handler = new Handler();
-        currentFrame = 0;
+        // The clip restarts at time 0, so tracks of an earlier playback must not carry over
+        objectDetector.resetTracking();
+        videoTimeUs = 0;
         loopThroughFrames();
     }
 
@@ -236,18 +238,21 @@ public class MainActivity extends AppCompatActivity {
                 int totalFrames = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION) != null
                         ? Integer.parseInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION)) : 1;
 
+                // Step through the video at the rate the governor currently allows
+                int frameRate = currentFrameRate();
                 long frameDuration = (long) ((1.0 / frameRate) * 1000000); // Convert to microseconds
-                long currentTime = currentFrame * frameDuration;
+                long currentTime = videoTimeUs;
                 Bitmap frame = retriever.getFrameAtTime(currentTime, MediaMetadataRetriever.OPTION_CLOSEST);
 
                 if (frame != null) {
                     Mat matFrame = new Mat();
                     Utils.bitmapToMat(frame, matFrame);
 
-                    // Apply object detection using the instance of ObjectDetector
-                    Mat detectedMat = objectDetector.recognizeImage(matFrame);
+                    // Apply object detection using the instance of ObjectDetector, timed by the frame's
+                    // presentation time so speeds follow the video rather than the processing rate
+                    Mat detectedMat = objectDetector.recognizeImage(matFrame, currentTime * 1000);
 
-                    speedEstimator = new SpeedEstimator(frameRate);
+                    speedEstimator = new SpeedEstimator(currentFrameRate());
 
                     // Convert the processed Mat back to a Bitmap
                     Bitmap detectedBitmap = Bitmap.createBitmap(detectedMat.cols(), detectedMat.rows(), Bitmap.Config.ARGB_8888);
@@ -259,14 +264,19 @@ public class MainActivity extends AppCompatActivity {
                     //was   imageView.setImageBitmap(detectedBitmap);
                 }
 
-                currentFrame++;
+                videoTimeUs += frameDuration;
                 if (currentTime < totalFrames * 1000) { // Compare with duration in microseconds
                     loopThroughFrames(); // Continue to the next frame
                 } else {
                     resetUI(); // Reset the UI when the video ends
                 }
             }
-        }, 1000 / frameRate); // Delay based on frame rate (milliseconds)
+        }, 1000 / currentFrameRate()); // Delay based on frame rate (milliseconds)
+    }
+
+    // Processing rate picked by the detector's frame rate governor
+    private int currentFrameRate() {
+        return objectDetector != null ? objectDetector.getFrameRateGovernor().getFrameRate() : DEFAULT_FRAME_RATE;
     }
 
 
@@ -2,52 +2,206 @@ package com.example.javaapp;
 
 import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
-import android.graphics.Bitmap;
-import android.graphics.RectF;
+import android.os.SystemClock;
 import android.util.Log;
-import android.util.Pair;
 
-import org.opencv.android.Utils;
 import org.opencv.core.Core;
 import org.opencv.core.Mat;
 import org.opencv.core.Point;
 import org.opencv.core.Scalar;
 import org.opencv.imgproc.Imgproc;
-import org.tensorflow.lite.Interpreter;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Array;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
-import org.opencv.core.MatOfPoint2f;
+import java.util.concurrent.TimeUnit;
 
 
 public class ObjectDetector {
 
-    private Interpreter interpreter;
-    private List<String> labelList;
+    private DetectorBackend backend;
+    private static final String BACKEND_CACHE_FILE = "detector_backend.properties";
+    private static final String GROUND_LOOKUP_FILE = "ground_lookup.bin";
+    private final ClassFilter classFilter; // Tracked classes and their parameters, from the label map
     private int INPUT_SIZE;
     private int height = 0;
     private int width = 0;
-    private Point vehicleCentroid; // Stores the centroid of the detected vehicle
+    // Overlay colors and scratch points, reused for every detection drawn
+    private static final Scalar BOX_COLOR = new Scalar(0, 255, 0, 255);
+    private static final Scalar CENTROID_COLOR = new Scalar(0, 0, 0);
+    private static final Scalar LABEL_COLOR = new Scalar(255, 0, 0, 255);
+    private final Point drawTopLeft = new Point();
+    private final Point drawBottomRight = new Point();
+    private final Point drawCentroid = new Point();
+    private final Point drawLabel = new Point();
+    private static final int MAX_DETECTIONS = 10; // Number of detections the model outputs per run
+    private static final int MAX_ACCEPTED_DETECTIONS = 40; // Detections kept per frame across all crops
+
+    // Regions of interest and their cached crop views; empty means the whole frame
+    private volatile List<RegionOfInterest> regionsOfInterest = Collections.emptyList();
+    private List<RegionOfInterest> plannedRegions;
+    private int[] cropRects;
+    private Mat[] cropViews;
+    private int planWidth = -1;
+    private int planHeight = -1;
+    // Box rectification; off until a calibration homography is set
+    private volatile PerspectiveRectifier rectifier;
+    private volatile boolean rectificationEnabled = true;
+    // The rectifier carried over to the unrotated frames drawResult draws on; render thread only
+    private PerspectiveRectifier displayRectifier;
+    private PerspectiveRectifier displayRectifierSource;
+    private int displayRectifierWidth;
+    // Road calibration for metric speeds; handed to the track table on the detector thread together
+    // with a lookup table of its projections. The table is built and persisted on a background thread
+    // and swapped in when ready; until then points are projected through the homography. It is kept
+    // in the app's files directory so the calibration survives restarts.
+    private volatile GroundPlane groundPlane;
+    private volatile int groundLookupCellSize = GROUND_LOOKUP_CELL_SIZE;
+    private static final int GROUND_LOOKUP_CELL_SIZE = 8; // Pixels between lookup table nodes
+    private volatile GroundLookupTable groundLookup;
+    private Thread groundLookupBuild; // Latest build started by the detector thread
+    private final File groundLookupFile; // null disables persistence
+    private static final int MAX_BATCH_SIZE = 4; // Crops run per interpreter invocation
+    private boolean batchingEnabled = true; // Cleared if the model rejects a batched input
+    private static final float MERGE_IOU = 0.5f; // Boxes from neighbouring tiles overlapping this much are one vehicle
+    private static final float MERGE_CONTAINMENT = 0.7f; // ...as are boxes mostly inside another one
+    private final FrameContext frameContext; // Buffers reused across frames
+    private long frameSequence = 0; // Number of frames processed, detected or tracked
+
+    // Detect-then-track mode: the model runs every detectionInterval frames, optical flow in between
+    private final OpticalFlowTracker flowTracker = new OpticalFlowTracker(MAX_ACCEPTED_DETECTIONS);
+    private int detectionInterval = 1;
+    private int framesSinceDetection = 0;
+    private long framesTracked = 0; // Frames served by optical flow instead of the model
+    private long earlyRedetections = 0; // Detector runs forced by failed flow before the interval elapsed
+
+    private final FrameRateGovernor governor = new FrameRateGovernor(MIN_FRAME_RATE, MAX_FRAME_RATE);
+    private static final int MIN_FRAME_RATE = 15; // Processing rate for an empty scene
+    private static final int MAX_FRAME_RATE = 30; // Processing rate while vehicles are tracked
 
     // Constructor for initializing the object detector with model and labels
     public ObjectDetector(AssetManager assetManager, String modelPath, String labelPath, int inputSize) throws IOException {
+        this(assetManager, modelPath, labelPath, inputSize, null);
+    }
+
+    // Same as above, caching the backend selection in cacheDir so the startup benchmark only runs once per device
+    public ObjectDetector(AssetManager assetManager, String modelPath, String labelPath, int inputSize, File cacheDir) throws IOException {
+        this(assetManager, modelPath, labelPath, inputSize, cacheDir, null);
+    }
+
+    // Same, also keeping the road calibration in filesDir, which unlike the cache is never evicted
+    public ObjectDetector(AssetManager assetManager, String modelPath, String labelPath, int inputSize, File cacheDir,
+                          File filesDir) throws IOException {
         INPUT_SIZE = inputSize;
-        Interpreter.Options options = new Interpreter.Options();
-        options.setNumThreads(4); // Set number of threads for the interpreter
-        interpreter = new Interpreter(loadModelFile(assetManager, modelPath), options);
-        labelList = loadLabelList(assetManager, labelPath); // Load labels
+        classFilter = ClassFilter.forVehicles(loadLabelList(assetManager, labelPath));
+        if (classFilter.getMaxGateDistance() == 0) {
+            throw new IOException("No vehicle classes in " + labelPath);
+        }
+        vehicleGrid = new SpatialGrid(classFilter.getMaxGateDistance());
+        gallery.setListener(lostTrackForgotten);
+        frameContext = new FrameContext(INPUT_SIZE, MAX_DETECTIONS, MAX_ACCEPTED_DETECTIONS);
+        frameContext.ensureTensorBuffers();
+
+        BackendSelector selector = new BackendSelector(cacheDir != null ? new File(cacheDir, BACKEND_CACHE_FILE) : null);
+        try {
+            backend = selector.select(modelPath, createBackendFactories(assetManager, modelPath), frameContext);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("No detector backend available", e);
+        }
+        Log.d("ObjectDetector", "Using backend " + backend.getName()
+                + (selector.isFromCache() ? " (cached)" : " benchmark ns: " + selector.getResults()));
+
+        groundLookupFile = filesDir != null ? new File(filesDir, GROUND_LOOKUP_FILE) : null;
+        groundLookup = readGroundLookup();
+        if (groundLookup != null) {
+            groundPlane = groundLookup.getPlane();
+        }
+    }
+
+    // Candidate backends, the TFLite CPU reference first
+    private List<DetectorBackend.Factory> createBackendFactories(final AssetManager assetManager, final String modelPath) {
+        List<DetectorBackend.Factory> factories = new ArrayList<>();
+        factories.add(new DetectorBackend.Factory() {
+            @Override
+            public String getName() {
+                return TfliteCpuBackend.NAME;
+            }
+
+            @Override
+            public DetectorBackend create() throws IOException {
+                return new TfliteCpuBackend(loadModelFile(assetManager, modelPath), 4);
+            }
+        });
+        factories.add(new DetectorBackend.Factory() {
+            @Override
+            public String getName() {
+                return TfliteNnapiBackend.NAME;
+            }
+
+            @Override
+            public DetectorBackend create() throws IOException {
+                return new TfliteNnapiBackend(loadModelFile(assetManager, modelPath));
+            }
+        });
+        factories.add(new DetectorBackend.Factory() {
+            @Override
+            public String getName() {
+                return OpenCvDnnBackend.NAME;
+            }
+
+            @Override
+            public DetectorBackend create() throws IOException {
+                // The dnn module cannot read .tflite files; it needs an exported sibling of the model
+                String baseName = modelPath.substring(0, modelPath.lastIndexOf('.'));
+                byte[] onnx = readAsset(assetManager, baseName + ".onnx");
+                if (onnx != null) {
+                    return OpenCvDnnBackend.fromOnnx(onnx, INPUT_SIZE);
+                }
+                byte[] graph = readAsset(assetManager, baseName + ".pb");
+                if (graph == null) {
+                    throw new FileNotFoundException("No " + baseName + ".onnx or .pb for " + OpenCvDnnBackend.NAME);
+                }
+                return OpenCvDnnBackend.fromTensorflow(graph, readAsset(assetManager, baseName + ".pbtxt"), INPUT_SIZE);
+            }
+        });
+        return factories;
+    }
+
+    // Reads a whole asset, or returns null if it does not exist
+    private static byte[] readAsset(AssetManager assetManager, String path) throws IOException {
+        InputStream in;
+        try {
+            in = assetManager.open(path);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
     }
 
     // Method to load the model file from assets
@@ -72,294 +226,755 @@ public class ObjectDetector {
         return labelList;
     }
 
-    // Inner class to represent a tracked vehicle with an ID, centroid, and history for speed estimation
-    class Vehicle {
-        int id;
-        Point centroid;
-        Point lastCentroid;
-        int framesNotSeen;
-        List<Pair<Long, RectF>> history = new ArrayList<>();
+    // Constant-velocity prediction; pixels and seconds
+    private static final double ACCELERATION_SIGMA = 500; // Unmodelled acceleration, px/s^2
+    private static final double MEASUREMENT_SIGMA = 6; // Centroid jitter of the detector, px
+    private static final double INITIAL_VELOCITY_SIGMA = 800; // Velocity uncertainty of a new track, px/s
+    private static final double GATE_CHI_SQUARE = 13.8; // 99.9% gate for 2 degrees of freedom
+    private long lastFrameTimestamp = Long.MIN_VALUE; // Capture time of the previous tracker update, ns
+
+    // Active vehicles with their centroids, boxes, motion state and history for speed estimation
+    private static final int INITIAL_TRACK_CAPACITY = 32;
+    private static final int HISTORY_CAPACITY = 10; // Boxes kept per track for speed estimation
+    private static final int TRAJECTORY_BUDGET = 64; // Points kept per track for its whole path
+    private static final float TRAJECTORY_TOLERANCE = 3; // Initial simplification tolerance, px
+    private final ConstantVelocityFilter motion =
+            new ConstantVelocityFilter(ACCELERATION_SIGMA, MEASUREMENT_SIGMA, INITIAL_VELOCITY_SIGMA);
+    private final TrackTable tracks = new TrackTable(INITIAL_TRACK_CAPACITY, HISTORY_CAPACITY, AppearanceExtractor.SIZE,
+            new TrajectorySimplifier(TRAJECTORY_BUDGET, TRAJECTORY_TOLERANCE), motion);
+
+    // Re-identification of vehicles that were lost, e.g. while occluded, before a new id is issued
+    private static final int GALLERY_CAPACITY = 32; // Lost tracks remembered at once
+    private static final float REID_MAX_DISTANCE = 0.35f; // Hellinger distance of matching descriptors
+    private static final long REID_MAX_AGE_MILLIS = 5000; // Lost tracks older than this are forgotten
+    private static final float APPEARANCE_BLEND = 0.2f; // Weight of the newest descriptor in a track's running one
+    private final AppearanceExtractor appearanceExtractor = new AppearanceExtractor();
+    private final ReidGallery gallery = new ReidGallery(GALLERY_CAPACITY, AppearanceExtractor.SIZE, HISTORY_CAPACITY,
+            TRAJECTORY_BUDGET, REID_MAX_DISTANCE, TimeUnit.MILLISECONDS.toNanos(REID_MAX_AGE_MILLIS), motion, GATE_CHI_SQUARE,
+            TimeUnit.SECONDS.toNanos(1));
+    private final float[] descriptor = new float[AppearanceExtractor.SIZE];
+    private final long[] historyTimes = new long[HISTORY_CAPACITY];
+    private final float[] historyBoxes = new float[HISTORY_CAPACITY * 4];
+    private volatile Trajectory.Listener trajectoryListener;
+    private final long[] trajectoryTimes = new long[TRAJECTORY_BUDGET];
+    private final float[] trajectoryX = new float[TRAJECTORY_BUDGET];
+    private final float[] trajectoryY = new float[TRAJECTORY_BUDGET];
+    // Confirmed tracks that are deleted go to the gallery with their appearance, history, trajectory,
+    // class and motion, which was predicted up to the current frame. Their trajectory is only handed to
+    // the listener once they can no longer be re-identified, so a vehicle lost for a while still yields
+    // one path; tracks without an appearance cannot be and hand it over at once.
+    private final TrackTable.DeletionListener trackEnded = new TrackTable.DeletionListener() {
+        @Override
+        public void onDeleted(int slot, boolean wasConfirmed) {
+            if (!wasConfirmed) {
+                return;
+            }
+            int points = tracks.exportTrajectory(slot, trajectoryTimes, trajectoryX, trajectoryY);
+            if (!tracks.hasAppearance[slot]) {
+                emitTrajectory(tracks.id[slot], tracks.vehicleClass[slot], points);
+                return;
+            }
+            int entry = gallery.add(tracks.id[slot], tracks.lastSeenTime[slot], tracks.appearance, slot * AppearanceExtractor.SIZE);
+            gallery.setTrajectory(entry, trajectoryTimes, trajectoryX, trajectoryY, points);
+            int count = tracks.exportHistory(slot, historyTimes, historyBoxes);
+            gallery.setHistory(entry, historyTimes, historyBoxes, count);
+            gallery.setMotion(entry, tracks.vehicleClass[slot], tracks.motionState, slot * ConstantVelocityFilter.STATE_SIZE,
+                    lastFrameTimestamp);
+        }
+    };
+    // Lost tracks that were evicted or expired without being re-identified hand over their trajectory
+    private final ReidGallery.Listener lostTrackForgotten = new ReidGallery.Listener() {
+        @Override
+        public void onForgotten(int entry) {
+            int points = gallery.getTrajectory(entry, trajectoryTimes, trajectoryX, trajectoryY);
+            emitTrajectory(gallery.getId(entry), gallery.getClassId(entry), points);
+        }
+    };
 
-        Vehicle(int id, Point centroid) {
-            this.id = id;
-            this.centroid = centroid;
-            this.lastCentroid = centroid;
-            this.framesNotSeen = 0;
+    // Hands the path in the trajectory arrays to the listener, if there is one
+    private void emitTrajectory(int trackId, int classId, int points) {
+        Trajectory.Listener listener = trajectoryListener;
+        if (listener != null) {
+            listener.onTrajectory(new Trajectory(trackId, classId, trajectoryTimes, trajectoryX, trajectoryY, points));
+        }
+    }
+    // Track lifecycle, in milliseconds so it does not depend on the processing rate
+    private static final int CONFIRM_HITS = 3; // Matches needed before a track is reported
+    private static final long CONFIRM_MILLIS = 150; // ...spread over at least this long
+    private static final long TENTATIVE_TIMEOUT_MILLIS = 300; // Unconfirmed tracks unseen this long are dropped
+    private static final long COAST_TIMEOUT_MILLIS = 1000; // Confirmed tracks coast on their prediction this long
+    private final TrackLifecycle lifecycle = new TrackLifecycle(CONFIRM_HITS, TimeUnit.MILLISECONDS.toNanos(CONFIRM_MILLIS),
+            TimeUnit.MILLISECONDS.toNanos(TENTATIVE_TIMEOUT_MILLIS), TimeUnit.MILLISECONDS.toNanos(COAST_TIMEOUT_MILLIS));
+    // Confirmed tracks after the latest update, swapped in whole so other threads can read them without locks
+    private volatile TrackSnapshot trackSnapshot = TrackSnapshot.EMPTY;
+    // Predicted centroids bucketed at the start of each update, at their active index; cells are as wide
+    // as the largest per-class gate distance
+    private final SpatialGrid vehicleGrid;
+    // Detection-to-track assignment, reused across frames
+    private static final double MIN_IOU = 0.1; // Below this overlap, matching falls back to centroid distance
+    private static final double GATE_COST = 2; // Pairs at or above this cost are never matched
+    private final HungarianAssigner assigner = new HungarianAssigner(GATE_COST);
+    private int[] candidates = new int[16];
+    private int nextVehicleId = 1; // ID counter for new vehicles
+    // Speed limits, by zone of the rotated frame; a vehicle is reported once it stays clearly above its
+    // zone's limit for a while
+    private static final double VIOLATION_ENTER_MARGIN = 5; // km/h over the limit that starts an episode
+    private static final double VIOLATION_EXIT_MARGIN = 2; // ...and below which it ends
+    private static final long VIOLATION_MIN_MILLIS = 500; // Episode length before a violation is reported
+    // A track may miss this many updates in a row, at the measured update interval, before its episode
+    // restarts, but never coast longer than the lifecycle lets it
+    private static final double VIOLATION_MAX_MISSED_UPDATES = 2;
+    private static final double UPDATE_INTERVAL_SMOOTHING = 0.1; // Weight of the newest interval in the average
+    private double updateIntervalNanos = 0; // Smoothed interval between tracker updates, 0 until measured
+    private static final float VIOLATION_MIN_CONFIDENCE = 0.7f; // Speed fit confidence needed to start one
+    private final SpeedViolationDetector violationDetector = new SpeedViolationDetector(VIOLATION_ENTER_MARGIN,
+            VIOLATION_EXIT_MARGIN, TimeUnit.MILLISECONDS.toNanos(VIOLATION_MIN_MILLIS),
+            TimeUnit.MILLISECONDS.toNanos(COAST_TIMEOUT_MILLIS), VIOLATION_MIN_CONFIDENCE);
+    private volatile List<SpeedZone> speedZones =
+            Collections.singletonList(SpeedZone.wholeFrame("default", SpeedEstimator.SPEED_LIMIT));
+    private List<SpeedZone> appliedSpeedZones;
+    private volatile SpeedViolation.Listener violationListener;
+
+    // Method to update tracked vehicles with the detections of the current frame. appearanceFrame is
+    // the unannotated rotated frame the detections were found in, or null if boxes were only propagated;
+    // appearance descriptors are only taken from real detections. timestampNanos is the capture time of
+    // the frame, which every track time, prediction step and speed is based on, so time spent queued
+    // or in inference does not distort them.
+    private void updateTrackedVehicles(DetectionBatch detections, Mat appearanceFrame, long timestampNanos) {
+        if (timestampNanos < lastFrameTimestamp) {
+            // Negative ages would keep stale tracks alive and mix both time ranges in their fits
+            Log.w("ObjectDetector", "Frame time went back by " + (lastFrameTimestamp - timestampNanos) + " ns, restarting tracking");
+            resetTracking();
+        }
+        double dt = lastFrameTimestamp != Long.MIN_VALUE ? (timestampNanos - lastFrameTimestamp) / 1e9 : 0;
+        lastFrameTimestamp = timestampNanos;
+        if (dt > 0) {
+            double interval = dt * 1e9;
+            updateIntervalNanos = updateIntervalNanos > 0
+                    ? updateIntervalNanos + UPDATE_INTERVAL_SMOOTHING * (interval - updateIntervalNanos) : interval;
+        }
+        updateGroundProjection();
+
+        // Predict every track to this frame and index the predictions by cell so each detection only
+        // looks at its neighbouring cells
+        tracks.beginFrame();
+        tracks.predictAll(dt);
+        int trackCount = tracks.activeCount();
+        vehicleGrid.clear();
+        for (int k = 0; k < trackCount; k++) {
+            int slot = tracks.activeSlot(k);
+            vehicleGrid.insert(tracks.predictedX(slot), tracks.predictedY(slot));
         }
 
-        // Update the centroid and add the bounding box to the history
-        void updateCentroid(Point newCentroid, RectF boundingBox) {
-            this.lastCentroid = this.centroid;
-            this.centroid = newCentroid;
-            this.framesNotSeen = 0;
-            long currentTime = System.currentTimeMillis();
-            history.add(Pair.create(currentTime, boundingBox));
-            if (history.size() > 10) { // Keep the history size manageable
-                history.remove(0);
+        // Build the detection x track cost matrix; only tracks in the neighbouring grid cells are candidates
+        if (candidates.length < trackCount) {
+            candidates = new int[Math.max(trackCount, candidates.length * 2)];
+        }
+        assigner.begin(detections.size(), trackCount);
+        for (int i = 0; i < detections.size(); i++) {
+            float gate = classFilter.gateDistance(detections.classId[i]);
+            int found = vehicleGrid.within(detections.centerX[i], detections.centerY[i], gate, candidates);
+            for (int c = 0; c < found; c++) {
+                int k = candidates[c];
+                double cost = associationCost(tracks, tracks.activeSlot(k), detections, i);
+                if (cost < GATE_COST) {
+                    assigner.setCost(i, k, cost);
+                }
             }
         }
-
-        // Estimate the speed based on equidistant points in the history
-        double estimateSpeed() {
-            if (history.size() < 4) {
-                return 0; // Not enough data points for speed calculation
+        // One-to-one matching: a track is updated by at most one detection per frame
+        assigner.solve();
+
+        // Loop over each detection
+        long currentTime = timestampNanos;
+        for (int i = 0; i < detections.size(); i++) {
+            float x = detections.centerX[i];
+            float y = detections.centerY[i];
+            int match = assigner.getAssignment(i);
+
+            boolean described = appearanceFrame != null && (match < 0 || tracks.isConfirmed(tracks.activeSlot(match)))
+                    && appearanceExtractor.compute(appearanceFrame, detections.left[i], detections.top[i],
+                    detections.right[i], detections.bottom[i], descriptor, 0);
+
+            // Update the matched track or create a new one if none are close enough
+            int slot;
+            if (match >= 0) {
+                slot = tracks.activeSlot(match);
+                tracks.correct(slot, x, y);
+            } else {
+                // A recently lost vehicle of the same class that looks the same and is where its motion
+                // would have taken it gets its id and history back
+                int entry = described ? gallery.match(descriptor, 0, detections.classId[i], x, y, currentTime) : -1;
+                if (entry >= 0) {
+                    slot = tracks.create(gallery.getId(entry), x, y, currentTime);
+                    int count = gallery.getHistory(entry, historyTimes, historyBoxes);
+                    tracks.reinstate(slot, gallery.getId(entry), historyTimes, historyBoxes, count);
+                    int points = gallery.getTrajectory(entry, trajectoryTimes, trajectoryX, trajectoryY);
+                    tracks.reinstateTrajectory(slot, trajectoryTimes, trajectoryX, trajectoryY, points);
+                    gallery.take(entry);
+                } else {
+                    slot = tracks.create(nextVehicleId++, x, y, currentTime);
+                }
+            }
+            tracks.observe(slot, currentTime, x, y, detections.left[i], detections.top[i], detections.right[i], detections.bottom[i]);
+            tracks.setVehicleClass(slot, detections.classId[i]);
+            if (described) {
+                tracks.updateAppearance(slot, descriptor, 0, APPEARANCE_BLEND);
             }
+            if (match >= 0 && tracks.isConfirmed(slot)) {
+                // Estimate the speed and log it
+                double estimatedSpeed = estimateSpeed(slot);
+                Log.d("SpeedEstimator", "Vehicle ID: " + tracks.id[slot] + " Speed: " + estimatedSpeed + " km/h");
+            }
+        }
 
-            // Get equidistant points A, B, and C
-            Pair<Long, RectF> pointA = history.get(history.size() - 4);
-            Pair<Long, RectF> pointB = history.get(history.size() - 3);
-            Pair<Long, RectF> pointC = history.get(history.size() - 2);
-            Pair<Long, RectF> pointD = history.get(history.size() - 1);
+        // Confirm, coast or delete tracks by how long they have been (un)seen
+        int confirmed = tracks.advanceLifecycle(lifecycle, currentTime, trackEnded);
+        gallery.expire(currentTime);
+        checkSpeedLimits(currentTime);
+        trackSnapshot = freezeTracks(currentTime, confirmed);
+    }
 
-            // Calculate meters per pixel (mpp) using the width of the bounding box at point A
-            double mpp = AVERAGE_CAR_LENGTH_METERS / pointA.second.width();
+    // Ends every track and forgets the lost ones, the violation episodes and the frame clock, so the next
+    // frame may start a new timeline, e.g. when a clip is replayed from its start. Ended tracks are
+    // reported like any other. Call it from the thread that runs detection, between frames.
+    public void resetTracking() {
+        tracks.clear(trackEnded);
+        gallery.clear();
+        violationDetector.reset();
+        lastFrameTimestamp = Long.MIN_VALUE;
+        updateIntervalNanos = 0;
+        framesSinceDetection = detectionInterval; // Boxes of the old timeline are not propagated
+        trackSnapshot = TrackSnapshot.EMPTY;
+    }
 
-            // Calculate distances in pixels between points AB and BC
-            double distanceAB = pointB.second.centerX() - pointA.second.centerX();
-            double distanceBC = pointC.second.centerX() - pointB.second.centerX();
-            double distanceCD = pointD.second.centerX() - pointC.second.centerX();
+    // Feeds the speed of every confirmed track matched in this frame to the violation detector and hands
+    // each violation it confirms to the listener. Coasting tracks carry no new evidence of their speed,
+    // so they are left out, and missing more than a couple of updates at the rate this device sustains
+    // makes their episode start over.
+    private void checkSpeedLimits(long time) {
+        // Half an interval on top absorbs jitter in the update times
+        long coastTimeout = TimeUnit.MILLISECONDS.toNanos(COAST_TIMEOUT_MILLIS);
+        violationDetector.setMaxGap(updateIntervalNanos > 0
+                ? Math.min(coastTimeout, (long) ((VIOLATION_MAX_MISSED_UPDATES + 1.5) * updateIntervalNanos)) : coastTimeout);
+        List<SpeedZone> zones = speedZones;
+        if (zones != appliedSpeedZones) {
+            violationDetector.setZones(zones);
+            appliedSpeedZones = zones;
+        }
+        for (int k = 0; k < tracks.activeCount(); k++) {
+            int slot = tracks.activeSlot(k);
+            if (!tracks.isConfirmed(slot) || !tracks.updated[slot]) {
+                continue;
+            }
+            double speed = estimateSpeed(slot);
+            SpeedViolation violation = violationDetector.update(slot, tracks.id[slot], tracks.vehicleClass[slot], time,
+                    (tracks.left[slot] + tracks.right[slot]) / 2 / width, tracks.bottom[slot] / height,
+                    speed, speed > 0 ? (float) speedConfidence(slot) : 0);
+            SpeedViolation.Listener listener = violationListener;
+            if (violation != null && listener != null) {
+                listener.onViolation(violation);
+            }
+        }
+    }
 
-            // Convert distances to meters
-            double distanceABMeters = Math.abs(distanceAB * mpp);
-            double distanceBCMeters = Math.abs(distanceBC * mpp);
-            double distanceCDMeters = Math.abs(distanceCD * mpp);
+    // Copies the confirmed tracks and their speeds into a new snapshot. Only the detector thread calls
+    // this; the volatile write of the result publishes the filled arrays to readers.
+    private TrackSnapshot freezeTracks(long time, int confirmed) {
+        TrackSnapshot snapshot = new TrackSnapshot(frameSequence, time, confirmed, tracks.activeCount(),
+                framesTracked, earlyRedetections, gallery.getReidentified(), violationDetector.getViolations());
+        int v = 0;
+        for (int k = 0; k < tracks.activeCount(); k++) {
+            int slot = tracks.activeSlot(k);
+            if (!tracks.isConfirmed(slot)) {
+                continue;
+            }
+            snapshot.ids[v] = tracks.id[slot];
+            snapshot.classIds[v] = tracks.vehicleClass[slot];
+            snapshot.x[v] = tracks.centroidX[slot];
+            snapshot.y[v] = tracks.centroidY[slot];
+            snapshot.left[v] = tracks.left[slot];
+            snapshot.top[v] = tracks.top[slot];
+            snapshot.right[v] = tracks.right[slot];
+            snapshot.bottom[v] = tracks.bottom[slot];
+            snapshot.speeds[v] = estimateSpeed(slot);
+            snapshot.speedConfidence[v] = snapshot.speeds[v] > 0 ? (float) speedConfidence(slot) : 0;
+            v++;
+        }
+        return snapshot;
+    }
 
-            // Calculate time intervals between points A to B and B to C in seconds
-            double timeAB = (pointB.first - pointA.first) / 1000.0; // Convert milliseconds to seconds
-            double timeBC = (pointC.first - pointB.first) / 1000.0; // Convert milliseconds to seconds
-            double timeCD = (pointD.first - pointC.first) / 1000.0; // Convert milliseconds to seconds
+    // Hands the current road calibration to the track table, starting a lookup table build when the
+    // calibration, frame size or granularity changed
+    private void updateGroundProjection() {
+        GroundPlane plane = groundPlane;
+        int cellSize = groundLookupCellSize;
+        GroundLookupTable lookup = groundLookup;
+        boolean current = lookup != null && lookup.getPlane() == plane && lookup.matches(plane, width, height, cellSize);
+        if (plane != null && cellSize > 0 && width > 0 && !current
+                && (groundLookupBuild == null || !groundLookupBuild.isAlive())) {
+            groundLookupBuild = buildGroundLookup(plane, width, height, cellSize);
+        }
+        if (!current) {
+            lookup = null;
+        }
+        if (plane != tracks.getGroundPlane() || lookup != tracks.getGroundLookup()) {
+            tracks.setGroundPlane(plane, lookup);
+        }
+    }
 
-            // Calculate speeds in m/s for regions AB and BC
-            double speedAB = distanceABMeters / timeAB;
-            double speedBC = distanceBCMeters / timeBC;
-            double speedCD = distanceCDMeters / timeCD;
+    // Builds and persists the lookup table on a background thread; it is published through the volatile
+    // field and picked up by the next frame
+    private Thread buildGroundLookup(final GroundPlane plane, final int width, final int height, final int cellSize) {
+        Thread build = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                GroundLookupTable table;
+                try {
+                    table = new GroundLookupTable(plane, width, height, cellSize);
+                } catch (IllegalArgumentException e) {
+                    Log.w("ObjectDetector", "No ground lookup table for " + width + "x" + height, e);
+                    return;
+                }
+                if (groundPlane != plane) {
+                    return; // Recalibrated meanwhile
+                }
+                groundLookup = table;
+                writeGroundLookup(table);
+            }
+        }, "GroundLookupBuild");
+        build.start();
+        return build;
+    }
 
-            // Convert speeds to km/h (1 m/s = 3.6 km/h)
-            double speedABKMPH = speedAB * 3.6;
-            double speedBCKMPH = speedBC * 3.6;
-            double speedCDKMPH = speedCD * 3.6;
+    private GroundLookupTable readGroundLookup() {
+        if (groundLookupFile == null || !groundLookupFile.exists()) {
+            return null;
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(groundLookupFile))) {
+            return GroundLookupTable.read(in);
+        } catch (IOException e) {
+            Log.w("ObjectDetector", "Ignoring unreadable ground lookup table", e);
+            return null;
+        }
+    }
 
-            // Calculate the final average speed
-            return (speedABKMPH + speedBCKMPH + speedCDKMPH) / 3.0;
+    private void writeGroundLookup(GroundLookupTable table) {
+        if (groundLookupFile == null) {
+            return;
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(groundLookupFile))) {
+            table.write(out);
+        } catch (IOException e) {
+            // The calibration then has to be set again after a restart
+            Log.w("ObjectDetector", "Could not save ground lookup table to " + groundLookupFile, e);
         }
     }
 
-    // List to keep track of active vehicles and their centroids
-    private List<Vehicle> trackedVehicles = new ArrayList<>();
-    private int nextVehicleId = 1; // ID counter for new vehicles
-    private static final double AVERAGE_CAR_LENGTH_METERS = 4.5; // Average car length in meters
-
-    // Method to update tracked vehicles with detected centroids and bounding boxes in the current frame
-    private void updateTrackedVehicles(List<Point> detectedCentroids, List<RectF> boundingBoxes) {
-        int MAX_DISTANCE = 300; // Maximum distance to consider the same vehicle
-        int MAX_FRAMES_NOT_SEEN = 15; // Max frames before removing a vehicle
-        Map<Integer, Point> updatedCentroids = new HashMap<>();
-
-        // Loop over each detected centroid
-        for (int i = 0; i < detectedCentroids.size(); i++) {
-            Point newCentroid = detectedCentroids.get(i);
-            RectF boundingBox = boundingBoxes.get(i);
-            int closestVehicleId = -1;
-            double minDistance = MAX_DISTANCE;
-
-            // Find the closest tracked vehicle within the threshold distance
-            for (Vehicle vehicle : trackedVehicles) {
-                double distance = calculateDistance(vehicle.centroid, newCentroid);
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    closestVehicleId = vehicle.id;
-                }
-            }
+    // Estimate the speed of a track from least-squares slopes over the history window; the running
+    // sums are kept up to date by the track table, so this is O(1). With a road calibration the speed
+    // is measured on the road, otherwise it is scaled from the nominal length of the vehicle's class.
+    private double estimateSpeed(int slot) {
+        if (tracks.groundSampleCount(slot) >= 4) {
+            // Meters per nanosecond to meters per second, then km/h (1 m/s = 3.6 km/h)
+            return tracks.groundSpeed(slot) * 1e9 * 3.6;
+        }
+        if (tracks.historySize(slot) < 4) {
+            return 0; // Not enough data points for speed calculation
+        }
 
-            // Update the centroid for the matched vehicle or create a new vehicle if none are close enough
-            if (closestVehicleId != -1) {
-                for (Vehicle vehicle : trackedVehicles) {
-                    if (vehicle.id == closestVehicleId) {
-                        vehicle.updateCentroid(newCentroid, boundingBox);
-                        updatedCentroids.put(vehicle.id, vehicle.centroid);
+        // Calculate meters per pixel (mpp) from the nominal length of the vehicle's class and the
+        // mean width of the bounding boxes in the window
+        double mpp = classFilter.lengthMeters(tracks.vehicleClass[slot]) / tracks.historyMeanWidth(slot);
 
-                        // Estimate the speed and log it
-                        double estimatedSpeed = vehicle.estimateSpeed();
-                        Log.d("SpeedEstimator", "Vehicle ID: " + vehicle.id + " Speed: " + estimatedSpeed + " km/h");
-                    }
-                }
-            } else {
-                int newId = nextVehicleId++;
-                Vehicle newVehicle = new Vehicle(newId, newCentroid);
-                newVehicle.updateCentroid(newCentroid, boundingBox);
-                trackedVehicles.add(newVehicle);
-                updatedCentroids.put(newId, newCentroid);
+        // Pixels per nanosecond to meters per second, then km/h
+        return Math.abs(tracks.historySlopeX(slot) * 1e9 * mpp) * 3.6;
+    }
+
+    // Confidence of the fit estimateSpeed used
+    private double speedConfidence(int slot) {
+        return tracks.groundSampleCount(slot) >= 4 ? tracks.groundSpeedConfidence(slot) : tracks.historyConfidenceX(slot);
+    }
+
+    // Cost of matching a track to a detection. The track's last box is moved to its predicted position;
+    // overlapping boxes cost 1 - IoU, so overlap always wins, otherwise the cost is 1..2 growing with the
+    // Mahalanobis distance of the detection from the prediction. Pairs that are neither overlapping
+    // enough nor inside the covariance gate get GATE_COST.
+    private static double associationCost(TrackTable tracks, int slot, DetectionBatch detections, int i) {
+        float shiftX = (float) (tracks.predictedX(slot) - tracks.centroidX[slot]);
+        float shiftY = (float) (tracks.predictedY(slot) - tracks.centroidY[slot]);
+        float boxLeft = tracks.left[slot] + shiftX;
+        float boxTop = tracks.top[slot] + shiftY;
+        float boxRight = tracks.right[slot] + shiftX;
+        float boxBottom = tracks.bottom[slot] + shiftY;
+        float overlapWidth = Math.min(boxRight, detections.right[i]) - Math.max(boxLeft, detections.left[i]);
+        float overlapHeight = Math.min(boxBottom, detections.bottom[i]) - Math.max(boxTop, detections.top[i]);
+        if (overlapWidth > 0 && overlapHeight > 0) {
+            double intersection = (double) overlapWidth * overlapHeight;
+            double union = (double) (boxRight - boxLeft) * (boxBottom - boxTop)
+                    + (double) detections.width(i) * detections.height(i) - intersection;
+            double iou = intersection / union;
+            if (iou >= MIN_IOU) {
+                return 1 - iou;
             }
         }
+        double distanceSq = tracks.mahalanobisSq(slot, detections.centerX[i], detections.centerY[i]);
+        return distanceSq < GATE_CHI_SQUARE ? 1 + distanceSq / GATE_CHI_SQUARE : GATE_COST;
+    }
 
-        // Handle vehicles not seen in this frame by incrementing framesNotSeen counter
-        for (Iterator<Vehicle> iterator = trackedVehicles.iterator(); iterator.hasNext(); ) {
-            Vehicle vehicle = iterator.next();
-            if (!updatedCentroids.containsKey(vehicle.id)) {
-                vehicle.framesNotSeen++;
-                // Remove vehicle if not seen for the maximum allowed frames
-                if (vehicle.framesNotSeen > MAX_FRAMES_NOT_SEEN) {
-
-                    MainActivity.frameRate = 15;
-                    iterator.remove();
-                }
+    // Rotates the frame into ctx.rotated, runs the model and fills ctx.detections with accepted vehicles
+    private DetectionBatch runDetection(Mat mat_image) {
+        FrameContext ctx = frameContext;
+        ctx.ensureFrameSize(mat_image.cols(), mat_image.rows());
+        ctx.beginFrame();
+
+        Mat rotated_mat_image = ctx.rotated;
+        Core.transpose(mat_image, ctx.transposed);
+        Core.flip(ctx.transposed, rotated_mat_image, 1); // Rotate and flip the image
+
+        height = rotated_mat_image.rows();
+        width = rotated_mat_image.cols();
+
+        DetectionBatch detections = ctx.detections;
+        Mat[] crops = planCrops(rotated_mat_image);
+        if (crops == null) {
+            preprocess(rotated_mat_image, ctx);
+            backend.run(ctx);
+            acceptDetections(detections, 0, 0, width, height);
+        } else {
+            // Each region or tile is run at the model's input size and mapped back to frame coordinates.
+            // Crops go through the model MAX_BATCH_SIZE at a time when the backend accepts a batch.
+            int c = 0;
+            if (batchingEnabled && crops.length > 1 && backend.supportsBatching()) {
+                c = runBatched(crops, ctx);
+            }
+            for (; c < crops.length; c++) {
+                preprocess(crops[c], ctx);
+                backend.run(ctx);
+                acceptDetections(detections, cropRects[c * 4], cropRects[c * 4 + 1], cropRects[c * 4 + 2], cropRects[c * 4 + 3]);
+            }
+            if (crops.length > 1) {
+                detections.mergeOverlapping(MERGE_IOU, MERGE_CONTAINMENT);
             }
         }
-        MainActivity.frameRate = 30;
+        frameSequence++;
+        return detections;
     }
 
-    // Utility method to calculate Euclidean distance between two points
-    private double calculateDistance(Point p1, Point p2) {
-        return Math.sqrt(Math.pow(p1.x - p2.x, 2) + Math.pow(p1.y - p2.y, 2));
+    // Runs the crops in batched invocations and returns how many were processed. Every invocation fills
+    // all slots of the batch, the last one padded with whatever its unused slots held before, so the
+    // backend keeps a single input shape instead of re-planning its tensors for a short last batch.
+    // If the model rejects a batched input, batching is turned off and the remaining crops are left
+    // to the per-crop path.
+    private int runBatched(Mat[] crops, FrameContext ctx) {
+        TileBatch batch = ctx.ensureBatch(Math.min(crops.length, MAX_BATCH_SIZE));
+        int done = 0;
+        while (done < crops.length) {
+            int count = Math.min(crops.length - done, batch.getSlots());
+            for (int k = 0; k < count; k++) {
+                preprocess(crops[done + k], ctx, batch.slotTensors[k]);
+            }
+            try {
+                backend.runBatch(ctx, batch.getSlots());
+            } catch (RuntimeException e) {
+                Log.w("ObjectDetector", backend.getName() + " rejected a batch of " + count + ", running crops one by one", e);
+                batchingEnabled = false;
+                return done;
+            }
+            // Demultiplex: each slot's outputs are filtered and mapped back through its own crop
+            for (int k = 0; k < count; k++) {
+                batch.results.demultiplex(k, ctx.detections);
+                int r = (done + k) * 4;
+                acceptDetections(ctx.detections, cropRects[r], cropRects[r + 1], cropRects[r + 2], cropRects[r + 3]);
+            }
+            done += count;
+        }
+        return done;
     }
 
-    private Mat warpBoundingBox(Mat inputFrame, RectF boundingBox) {
-        // Source points from bounding box (top-left, top-right, bottom-left, bottom-right)
-        Point srcPoints[] = {
-                new Point(boundingBox.left, boundingBox.top),
-                new Point(boundingBox.right, boundingBox.top),
-                new Point(boundingBox.left, boundingBox.bottom),
-                new Point(boundingBox.right, boundingBox.bottom)
-        };
+    // Filters the raw outputs of one model run on the given crop into the batch
+    private void acceptDetections(DetectionBatch detections, int cropX, int cropY, int cropWidth, int cropHeight) {
+        float[] scores = detections.rawScores;
+        float[] classes = detections.rawClasses;
+        for (int i = 0; i < detections.rawCapacity(); i++) {
+            if (classFilter.accepts((int) classes[i], scores[i])) {
+                detections.addRaw(i, cropX, cropY, cropWidth, cropHeight);
+            }
+        }
+    }
 
-        // Destination points - Rectified to standard size
-        double boxWidth = boundingBox.width();
-        double boxHeight = boundingBox.height();
+    // Returns submat views of the rotated frame for the configured regions, or null to use the whole frame.
+    // The views are rebuilt only when the regions or the frame geometry change.
+    private Mat[] planCrops(Mat rotated) {
+        List<RegionOfInterest> regions = regionsOfInterest;
+        if (regions.isEmpty()) {
+            return null;
+        }
+        if (regions != plannedRegions || rotated.cols() != planWidth || rotated.rows() != planHeight) {
+            if (cropViews != null) {
+                for (Mat view : cropViews) {
+                    view.release();
+                }
+            }
+            cropRects = TilePlanner.plan(regions, rotated.cols(), rotated.rows(), INPUT_SIZE);
+            cropViews = new Mat[cropRects.length / 4];
+            for (int c = 0; c < cropViews.length; c++) {
+                int x = cropRects[c * 4];
+                int y = cropRects[c * 4 + 1];
+                cropViews[c] = rotated.submat(y, y + cropRects[c * 4 + 3], x, x + cropRects[c * 4 + 2]);
+            }
+            plannedRegions = regions;
+            planWidth = rotated.cols();
+            planHeight = rotated.rows();
+        }
+        return cropViews;
+    }
 
-        Point dstPoints[] = {
-                new Point(0, 0),
-                new Point(boxWidth, 0),
-                new Point(0, boxHeight),
-                new Point(boxWidth, boxHeight)
-        };
+    // Restricts detection to the given regions of the rotated frame; an empty list uses the whole frame
+    public void setRegionsOfInterest(List<RegionOfInterest> regions) {
+        regionsOfInterest = Collections.unmodifiableList(new ArrayList<>(regions));
+    }
 
-        // Calculate the perspective transformation matrix
-        Mat homographyMatrix = Imgproc.getPerspectiveTransform(
-                new MatOfPoint2f(srcPoints),
-                new MatOfPoint2f(dstPoints)
-        );
+    // Detects and tracks vehicles without drawing, returning a snapshot the render path can draw later.
+    // Used by the asynchronous pipeline, where the frame passed in is never displayed.
+    public DetectionResult detect(Mat mat_image) {
+        return detect(mat_image, null, SystemClock.elapsedRealtimeNanos());
+    }
 
-        // Check if homography matrix is empty (failsafe)
-        if (homographyMatrix.empty()) {
-            Log.d("Warp", "Homography matrix empty – skipping warp.");
-            return inputFrame.submat((int) boundingBox.top, (int) boundingBox.bottom, (int) boundingBox.left, (int) boundingBox.right);
+    // Same as above. With a gray frame and a detection interval above 1, the model only runs every
+    // detectionInterval frames and boxes are moved with optical flow in between. A box whose flow
+    // fails forces an early re-detect. timestampNanos is the frame's capture time; all frames given to
+    // one detector must use the same clock.
+    public DetectionResult detect(Mat mat_image, Mat gray, long timestampNanos) {
+        long start = System.nanoTime();
+        DetectionBatch detections;
+        Mat appearanceFrame = null;
+        boolean flowMode = gray != null && detectionInterval > 1;
+        if (flowMode && framesSinceDetection + 1 < detectionInterval
+                && flowTracker.propagate(gray, frameContext.detections)) {
+            detections = frameContext.detections;
+            framesSinceDetection++;
+            framesTracked++;
+            frameSequence++;
+        } else {
+            if (flowMode && framesSinceDetection + 1 < detectionInterval) {
+                earlyRedetections++;
+            }
+            detections = runDetection(mat_image);
+            appearanceFrame = frameContext.rotated;
+            framesSinceDetection = 0;
+            if (flowMode) {
+                flowTracker.initialize(gray, detections);
+            }
         }
+        updateTrackedVehicles(detections, appearanceFrame, timestampNanos);
 
-        // Apply the warp
-        Mat outputFrame = new Mat();
-        Imgproc.warpPerspective(inputFrame, outputFrame, homographyMatrix, inputFrame.size());
+        // Only confirmed tracks are reported and speed-estimated
+        DetectionResult result = new DetectionResult(frameSequence, timestampNanos, width, detections, trackSnapshot);
+        governor.update(System.nanoTime() - start, tracks.activeCount());
+        return result;
+    }
 
-        return outputFrame;
+    // Draws a detection snapshot onto an unrotated camera frame, rectifying the boxes like recognizeImage
+    public void drawResult(Mat frame, DetectionResult result) {
+        PerspectiveRectifier rectifier = rectificationEnabled ? displayRectifier(result.rotatedWidth) : null;
+        for (int i = 0; i < result.detectionCount; i++) {
+            // The rotated box's top/bottom become the frame's left/right and vice versa
+            drawTopLeft.x = result.mapX(result.right[i], result.top[i]);
+            drawTopLeft.y = result.mapY(result.right[i], result.top[i]);
+            drawBottomRight.x = result.mapX(result.left[i], result.bottom[i]);
+            drawBottomRight.y = result.mapY(result.left[i], result.bottom[i]);
+            if (rectifier != null) {
+                rectifier.rectify(frame, (int) drawTopLeft.x, (int) drawTopLeft.y,
+                        (int) drawBottomRight.x, (int) drawBottomRight.y);
+            }
+            drawCentroid.x = (drawTopLeft.x + drawBottomRight.x) / 2;
+            drawCentroid.y = (drawTopLeft.y + drawBottomRight.y) / 2;
+            Imgproc.rectangle(frame, drawTopLeft, drawBottomRight, BOX_COLOR, 2);
+            Imgproc.circle(frame, drawCentroid, 10, CENTROID_COLOR, -1);
+        }
+        TrackSnapshot snapshot = result.tracks;
+        for (int v = 0; v < snapshot.count; v++) {
+            drawLabel.x = result.mapX(snapshot.x[v] - 10, snapshot.y[v] - 20);
+            drawLabel.y = result.mapY(snapshot.x[v] - 10, snapshot.y[v] - 20);
+            Imgproc.putText(frame, "ID: " + snapshot.ids[v] + " Speed: " + String.format("%.2f km/h", snapshot.speeds[v]),
+                    drawLabel, 0, 0.5, LABEL_COLOR, 2);
+        }
     }
 
+    // The calibration rectifier in camera-frame pixels for rotated frames of the given width, or null
+    // without a calibration. Rebuilt when the calibration or the frame geometry changes.
+    private PerspectiveRectifier displayRectifier(int rotatedWidth) {
+        PerspectiveRectifier source = rectifier;
+        if (source == null) {
+            return null;
+        }
+        if (source != displayRectifierSource || rotatedWidth != displayRectifierWidth) {
+            if (displayRectifier != null) {
+                displayRectifier.release();
+            }
+            displayRectifier = new PerspectiveRectifier(PerspectiveRectifier.unrotate(source.getHomography(), rotatedWidth));
+            displayRectifierSource = source;
+            displayRectifierWidth = rotatedWidth;
+        }
+        return displayRectifier;
+    }
 
+    // Detects, tracks and draws on the frame in place, stamping it with the time it arrives here
     public Mat recognizeImage(Mat mat_image) {
-        Mat rotated_mat_image = new Mat();
-        Core.flip(mat_image.t(), rotated_mat_image, 1); // Rotate and flip the image
-        Bitmap bitmap = Bitmap.createBitmap(rotated_mat_image.cols(), rotated_mat_image.rows(), Bitmap.Config.ARGB_8888);
-        Utils.matToBitmap(rotated_mat_image, bitmap);
-
-        height = bitmap.getHeight();
-        width = bitmap.getWidth();
-
-        Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, INPUT_SIZE, INPUT_SIZE, false);
-        ByteBuffer byteBuffer = convertBitmapToByteBuffer(scaledBitmap);
-
-        Object[] input = new Object[1];
-        input[0] = byteBuffer;
-
-        Map<Integer, Object> output_map = new TreeMap<>();
-        float[][][] boxes = new float[1][10][4]; // Bounding box coordinates
-        float[][] scores = new float[1][10]; // Confidence scores
-        float[][] classes = new float[1][10]; // Class labels
-
-        output_map.put(0, boxes);
-        output_map.put(1, classes);
-        output_map.put(2, scores);
+        return recognizeImage(mat_image, SystemClock.elapsedRealtimeNanos());
+    }
 
-        interpreter.runForMultipleInputsOutputs(input, output_map);
+    // Same, for a frame captured at timestampNanos (camera sensor or video presentation time)
+    public Mat recognizeImage(Mat mat_image, long timestampNanos) {
+        long start = System.nanoTime();
+        DetectionBatch detections = runDetection(mat_image);
+        FrameContext ctx = frameContext;
+        Mat rotated_mat_image = ctx.rotated;
+
+        // Update tracked vehicles with the detections of this frame, before anything is drawn on it
+        updateTrackedVehicles(detections, rotated_mat_image, timestampNanos);
+
+        for (int i = 0; i < detections.size(); i++) {
+            float left = detections.left[i];
+            float top = detections.top[i];
+            float right = detections.right[i];
+            float bottom = detections.bottom[i];
+
+            // Optional perspective rectification of the box through the calibration homography
+            PerspectiveRectifier rectifier = this.rectifier;
+            if (rectifier != null && rectificationEnabled) {
+                rectifier.rectify(rotated_mat_image, (int) left, (int) top, (int) right, (int) bottom);
+            }
 
-        List<Point> detectedCentroids = new ArrayList<>();
-        List<RectF> boundingBoxes = new ArrayList<>();
+            drawTopLeft.x = left;
+            drawTopLeft.y = top;
+            drawBottomRight.x = right;
+            drawBottomRight.y = bottom;
+            drawCentroid.x = detections.centerX[i];
+            drawCentroid.y = detections.centerY[i];
+            Imgproc.rectangle(rotated_mat_image, drawTopLeft, drawBottomRight, BOX_COLOR, 2);
+            Imgproc.circle(rotated_mat_image, drawCentroid, 10, CENTROID_COLOR, -1);
+        }
 
-        for (int i = 0; i < 10; i++) {
-            float class_value = (float) Array.get(Array.get(output_map.get(1), 0), i);
-            float score_value = (float) Array.get(Array.get(output_map.get(2), 0), i);
+        // Draw each tracked vehicle's ID and speed on the bounding box
+        TrackSnapshot snapshot = trackSnapshot;
+        for (int v = 0; v < snapshot.count; v++) {
+            // Draw vehicle ID and speed on the frame
+            drawLabel.x = snapshot.x[v] - 10;
+            drawLabel.y = snapshot.y[v] - 20;
+            Imgproc.putText(rotated_mat_image, "ID: " + snapshot.ids[v] + " Speed: " + String.format("%.2f km/h", snapshot.speeds[v]),
+                    drawLabel, 0, 0.5, LABEL_COLOR, 2);
+        }
 
-            if (score_value > 0.5) {
-                Object box1 = Array.get(Array.get(output_map.get(0), 0), i);
-                float top = (float) Array.get(box1, 0) * height;
-                float left = (float) Array.get(box1, 1) * width;
-                float bottom = (float) Array.get(box1, 2) * height;
-                float right = (float) Array.get(box1, 3) * width;
+        Core.transpose(rotated_mat_image, ctx.restored);
+        Core.flip(ctx.restored, mat_image, 0);
+        governor.update(System.nanoTime() - start, tracks.activeCount());
+        return mat_image;
+    }
 
-                if (class_value == 2 || class_value == 3 || class_value == 5 || class_value == 7) { // Filter classes if needed
-                    vehicleCentroid = new Point((left + right) / 2, (top + bottom) / 2);
-                    RectF boundingBox = new RectF(left, top, right, bottom);
-                    detectedCentroids.add(vehicleCentroid);
-                    boundingBoxes.add(boundingBox);
+    // calculate focal length
+    public double calculateFocalLength(double knownWidth, double knownDistance, double perceivedWidth) {
+        return (perceivedWidth * knownDistance) / knownWidth;
+    }
 
-                    // **Apply Perspective Warp to the Bounding Box (INSERT HERE)**
-                    Mat warpedBox = warpBoundingBox(rotated_mat_image, boundingBox);
-                    Mat roi = rotated_mat_image.submat((int) boundingBox.top, (int) boundingBox.bottom, (int) boundingBox.left, (int) boundingBox.right);
 
-                    // Resize warped box to match bounding box dimensions
-                    Imgproc.resize(warpedBox, warpedBox, roi.size());
+    // Resizes the RGBA frame to the model input size and converts it to RGB straight into the
+    // interpreter's input buffer, which backs ctx.tensor
+    private void preprocess(Mat rgbaFrame, FrameContext ctx) {
+        preprocess(rgbaFrame, ctx, ctx.tensor);
+        ctx.inputBuffer.rewind();
+    }
 
-                    // Copy warped box back to ROI in the original image
-                    warpedBox.copyTo(roi);
+    // Same, writing into the given tensor, e.g. one slot of a TileBatch
+    private void preprocess(Mat rgbaFrame, FrameContext ctx, Mat tensor) {
+        Imgproc.resize(rgbaFrame, ctx.resized, ctx.resized.size(), 0, 0, Imgproc.INTER_LINEAR);
+        Imgproc.cvtColor(ctx.resized, tensor, Imgproc.COLOR_RGBA2RGB);
+    }
 
-                    Imgproc.rectangle(rotated_mat_image, new Point(left, top), new Point(right, bottom), new Scalar(0, 255, 0, 255), 2);
-                    Imgproc.circle(rotated_mat_image, vehicleCentroid, 10, new Scalar(0, 0, 0), -1);
+    // Sets the camera calibration homography (row-major 3x3, rotated frame -> rectified pixels) used
+    // to rectify detection boxes where they are drawn, by recognizeImage and drawResult; null removes it
+    public void setCalibrationHomography(double[] homography) {
+        // The previous rectifier may still be in use by a running frame, so its maps are left to the GC
+        rectifier = homography != null ? new PerspectiveRectifier(homography) : null;
+    }
 
-                }
+    // Sets the road calibration (row-major 3x3, rotated frame -> road meters) that speeds are measured
+    // with; null goes back to estimating scale from vehicle sizes and forgets the saved calibration
+    public void setGroundPlane(GroundPlane plane) {
+        groundPlane = plane;
+        if (plane == null) {
+            groundLookup = null;
+            if (groundLookupFile != null && groundLookupFile.exists() && !groundLookupFile.delete()) {
+                Log.w("ObjectDetector", "Could not delete " + groundLookupFile);
             }
         }
+    }
 
-        // Update tracked vehicles with new centroids and bounding boxes
-        updateTrackedVehicles(detectedCentroids, boundingBoxes);
+    // Calibrates the road from four or more points marked in the rotated frame ([x0, y0, x1, y1, ...])
+    // and their known positions on the road in meters
+    public void setGroundCalibration(double[] imagePoints, double[] roadPoints) {
+        setGroundPlane(GroundPlane.fromCorrespondences(imagePoints, roadPoints));
+    }
 
-        // Draw each tracked vehicle's ID and speed on the bounding box
-        for (Vehicle vehicle : trackedVehicles) {
-            double estimatedSpeed = vehicle.estimateSpeed();
+    // Pixels between the nodes of the ground lookup table; 0 projects every point through the homography
+    public void setGroundLookupCellSize(int pixels) {
+        groundLookupCellSize = Math.max(0, pixels);
+    }
 
-            // Draw vehicle ID and speed on the frame
-            Imgproc.putText(rotated_mat_image, "ID: " + vehicle.id + " Speed: " + String.format("%.2f km/h", estimatedSpeed),
-                    new Point(vehicle.centroid.x - 10, vehicle.centroid.y - 20),
-                    0, 0.5, new Scalar(255, 0, 0, 255), 2);
+    // Turns the rectification stage on or off without dropping the calibration
+    public void setRectificationEnabled(boolean enabled) {
+        rectificationEnabled = enabled;
+    }
 
-        }
+    // Processing rate chosen from measured latency and the number of tracked vehicles
+    public FrameRateGovernor getFrameRateGovernor() {
+        return governor;
+    }
 
-        Core.flip(rotated_mat_image.t(), mat_image, 0);
-        return mat_image;
+    // Runs the model every n frames and tracks with optical flow in between; 1 runs it on every frame
+    public void setDetectionInterval(int n) {
+        detectionInterval = Math.max(1, n);
     }
 
-    // calculate focal length
-    public double calculateFocalLength(double knownWidth, double knownDistance, double perceivedWidth) {
-        return (perceivedWidth * knownDistance) / knownWidth;
+    // Receives the simplified path of every confirmed track when it ends, which for a track that may
+    // still be re-identified is once it has been lost for longer than re-identification looks back;
+    // null stops delivery
+    public void setTrajectoryListener(Trajectory.Listener listener) {
+        trajectoryListener = listener;
+    }
+
+    // Sets the speed zones in priority order, in fractions of the rotated frame; an empty list disables
+    // the speed limit check
+    public void setSpeedZones(List<SpeedZone> zones) {
+        speedZones = new ArrayList<>(zones);
     }
 
+    // Receives every speed violation once; null stops delivery
+    public void setViolationListener(SpeedViolation.Listener listener) {
+        violationListener = listener;
+    }
 
-    // Converts bitmap to ByteBuffer format for model input
-    private ByteBuffer convertBitmapToByteBuffer(Bitmap bitmap) {
-        ByteBuffer byteBuffer;
-        int size_images = INPUT_SIZE;
+    // Confirmed tracks and tracker counters after the latest update; safe to call from any thread
+    public TrackSnapshot getTrackSnapshot() {
+        return trackSnapshot;
+    }
 
-        byteBuffer = ByteBuffer.allocateDirect(1 * size_images * size_images * 3);
-        byteBuffer.order(ByteOrder.nativeOrder());
+    public long getFramesTracked() {
+        return trackSnapshot.framesTracked;
+    }
 
-        int[] intValues = new int[size_images * size_images];
-        bitmap.getPixels(intValues, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight());
-        int pixel = 0;
+    public long getEarlyRedetections() {
+        return trackSnapshot.earlyRedetections;
+    }
 
-        for (int i = 0; i < size_images; ++i) {
-            for (int j = 0; j < size_images; ++j) {
-                final int val = intValues[pixel++];
-                byteBuffer.put((byte) ((val >> 16) & 0xFF));
-                byteBuffer.put((byte) ((val >> 8) & 0xFF));
-                byteBuffer.put((byte) (val & 0xFF));
-            }
-        }
-        return byteBuffer;
+    // Name of the inference backend picked at startup
+    public String getBackendName() {
+        return backend.getName();
+    }
+
+    // Buffers reused across recognizeImage calls
+    public FrameContext getFrameContext() {
+        return frameContext;
     }
 }
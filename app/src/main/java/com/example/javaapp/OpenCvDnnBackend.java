@@ -0,0 +1,167 @@
+package com.example.javaapp;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+
+// OpenCV dnn module running an SSD exported as a TensorFlow frozen graph or ONNX file.
+// The SSD DetectionOutput layer yields rows of [batchId, classId, score, left, top, right, bottom],
+// grouped by class rather than sorted by score, so the highest-scoring rows are picked out before
+// they are copied into the fixed number of raw detections a run reports.
+public class OpenCvDnnBackend implements DetectorBackend {
+
+    public static final String NAME = "opencv-dnn";
+    private static final int DETECTION_FIELDS = 7;
+
+    private final Net net;
+    private final Size inputSize;
+    private final Scalar mean = new Scalar(0, 0, 0);
+    private final int classOffset; // dnn SSDs count the background as class 0, the TFLite labelmap does not
+    private float[] rows = new float[0];
+    private int[] picked = new int[0]; // Row indices chosen for one image
+
+    public OpenCvDnnBackend(Net net, int inputSize, int classOffset) {
+        if (net.empty()) {
+            throw new IllegalArgumentException("Empty dnn network");
+        }
+        this.net = net;
+        this.inputSize = new Size(inputSize, inputSize);
+        this.classOffset = classOffset;
+        net.setPreferableBackend(Dnn.DNN_BACKEND_OPENCV);
+        net.setPreferableTarget(Dnn.DNN_TARGET_CPU);
+    }
+
+    // Loads a TensorFlow frozen graph with an optional text graph config (may be null)
+    public static OpenCvDnnBackend fromTensorflow(byte[] model, byte[] config, int inputSize) {
+        Net net = config != null
+                ? Dnn.readNetFromTensorflow(new MatOfByte(model), new MatOfByte(config))
+                : Dnn.readNetFromTensorflow(new MatOfByte(model));
+        return new OpenCvDnnBackend(net, inputSize, 1);
+    }
+
+    public static OpenCvDnnBackend fromOnnx(byte[] model, int inputSize) {
+        return new OpenCvDnnBackend(Dnn.readNetFromONNX(new MatOfByte(model)), inputSize, 1);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void run(FrameContext ctx) {
+        // ctx.tensor already holds the resized RGB frame, so no channel swap is needed
+        Mat blob = Dnn.blobFromImage(ctx.tensor, 1.0, inputSize, mean, false, false);
+        net.setInput(blob);
+        Mat out = net.forward();
+
+        int count = (int) (out.total() / DETECTION_FIELDS);
+        if (rows.length < count * DETECTION_FIELDS) {
+            rows = new float[count * DETECTION_FIELDS];
+        }
+        Mat flat = out.reshape(1, 1);
+        flat.get(0, 0, rows);
+
+        DetectionBatch detections = ctx.detections;
+        int capacity = detections.rawCapacity();
+        int n = pickTop(-1, count, capacity);
+        for (int i = 0; i < capacity; i++) {
+            int o = i * 4;
+            if (i < n) {
+                int r = picked[i] * DETECTION_FIELDS;
+                detections.rawClasses[i] = rows[r + 1] - classOffset;
+                detections.rawScores[i] = rows[r + 2];
+                detections.rawBoxes[o] = rows[r + 4];
+                detections.rawBoxes[o + 1] = rows[r + 3];
+                detections.rawBoxes[o + 2] = rows[r + 6];
+                detections.rawBoxes[o + 3] = rows[r + 5];
+            } else {
+                detections.rawScores[i] = 0;
+            }
+        }
+
+        flat.release();
+        out.release();
+        blob.release();
+    }
+
+    @Override
+    public boolean supportsBatching() {
+        return true;
+    }
+
+    @Override
+    public void runBatch(FrameContext ctx, int count) {
+        TileBatch batch = ctx.batch;
+        Mat blob = Dnn.blobFromImages(batch.images(count), 1.0, inputSize, mean, false, false);
+        net.setInput(blob);
+        Mat out = net.forward();
+
+        int total = (int) (out.total() / DETECTION_FIELDS);
+        if (rows.length < total * DETECTION_FIELDS) {
+            rows = new float[total * DETECTION_FIELDS];
+        }
+        Mat flat = out.reshape(1, 1);
+        flat.get(0, 0, rows);
+
+        // Rows of all images come in one list, tagged with the image index in their first field
+        batch.results.clearScores(count);
+        int capacity = ctx.detections.rawCapacity();
+        for (int slot = 0; slot < count; slot++) {
+            int n = pickTop(slot, total, capacity);
+            for (int i = 0; i < n; i++) {
+                int r = picked[i] * DETECTION_FIELDS;
+                batch.results.put(slot, i, rows[r + 1] - classOffset, rows[r + 2],
+                        rows[r + 4], rows[r + 3], rows[r + 6], rows[r + 5]);
+            }
+        }
+
+        flat.release();
+        out.release();
+        blob.release();
+    }
+
+    // Picks the indices of the highest-scoring rows of the given image (any image for -1) into picked,
+    // best first, and returns how many were picked, at most capacity
+    private int pickTop(int image, int total, int capacity) {
+        if (picked.length < capacity) {
+            picked = new int[capacity];
+        }
+        return pickTop(rows, total, image, capacity, picked);
+    }
+
+    static int pickTop(float[] rows, int total, int image, int capacity, int[] picked) {
+        if (capacity == 0) {
+            return 0;
+        }
+        int n = 0;
+        for (int i = 0; i < total; i++) {
+            int r = i * DETECTION_FIELDS;
+            if (image >= 0 && (int) rows[r] != image) {
+                continue;
+            }
+            float score = rows[r + 2];
+            if (n == capacity && score <= rows[picked[n - 1] * DETECTION_FIELDS + 2]) {
+                continue;
+            }
+            // Insertion into the short sorted list, dropping its last entry when full
+            int k = n < capacity ? n++ : n - 1;
+            while (k > 0 && rows[picked[k - 1] * DETECTION_FIELDS + 2] < score) {
+                picked[k] = picked[k - 1];
+                k--;
+            }
+            picked[k] = i;
+        }
+        return n;
+    }
+
+    @Override
+    public void close() {
+        // The per-run blobs are released in run and runBatch. The Java bindings of Net expose no release
+        // method, only a finalizer that frees the native network, so dropping the last reference to this
+        // backend is what releases it.
+    }
+}
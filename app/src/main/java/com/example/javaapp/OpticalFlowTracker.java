@@ -0,0 +1,219 @@
+package com.example.javaapp;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Size;
+import org.opencv.core.TermCriteria;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.video.Video;
+
+import java.util.Arrays;
+
+// Propagates detection boxes between detector runs with sparse Lucas-Kanade optical flow.
+// Corner features are picked inside every box on a downscaled, rotated gray frame and each box is
+// shifted by the median displacement of its features. A box that loses too many features reports a
+// failure so the caller can re-detect early.
+public class OpticalFlowTracker {
+
+    private static final double FLOW_SCALE = 0.5; // Gray frames are tracked at half resolution
+    private static final int MAX_CORNERS_PER_BOX = 12;
+    private static final int MIN_POINTS_PER_BOX = 3;
+    private static final double MIN_TRACKED_FRACTION = 0.5; // Overall confidence below this forces a re-detect
+    private static final Size SCALE_BY_FACTOR = new Size(); // Empty size: resize derives it from FLOW_SCALE
+    private static final Size WINDOW_SIZE = new Size(15, 15);
+    private static final int MAX_PYRAMID_LEVEL = 2;
+    private static final TermCriteria CRITERIA = new TermCriteria(TermCriteria.COUNT + TermCriteria.EPS, 20, 0.03);
+
+    private final int maxBoxes;
+
+    // Downscaled gray frames in rotated orientation, swapped every frame
+    private Mat small = new Mat();
+    private Mat transposed = new Mat();
+    private Mat previous = new Mat();
+    private Mat current = new Mat();
+
+    // Feature points of the previous frame, x/y interleaved, grouped per box
+    private final float[] points;
+    private final float[] nextPoints;
+    private final byte[] status;
+    private final int[] boxStart;
+    private final int[] boxCount;
+    private int boxes = 0;
+    private int pointCount = 0;
+
+    // Scratch arrays for the per-box median and the box shifts
+    private final float[] dx;
+    private final float[] dy;
+    private final float[] shiftX;
+    private final float[] shiftY;
+    private final int[] corners = new int[MAX_CORNERS_PER_BOX * 2];
+
+    private final MatOfPoint cornerMat = new MatOfPoint();
+    private final MatOfPoint2f previousPointMat = new MatOfPoint2f();
+    private final MatOfPoint2f nextPointMat = new MatOfPoint2f();
+    private final MatOfByte statusMat = new MatOfByte();
+    private final MatOfFloat errorMat = new MatOfFloat();
+
+    private double lastTrackedFraction = 1.0;
+
+    public OpticalFlowTracker(int maxBoxes) {
+        this.maxBoxes = maxBoxes;
+        int maxPoints = maxBoxes * MAX_CORNERS_PER_BOX;
+        points = new float[maxPoints * 2];
+        nextPoints = new float[maxPoints * 2];
+        status = new byte[maxPoints];
+        boxStart = new int[maxBoxes];
+        boxCount = new int[maxBoxes];
+        dx = new float[MAX_CORNERS_PER_BOX];
+        dy = new float[MAX_CORNERS_PER_BOX];
+        shiftX = new float[maxBoxes];
+        shiftY = new float[maxBoxes];
+    }
+
+    // Downscales the camera gray frame and rotates it the same way ObjectDetector rotates RGBA frames
+    private void prepare(Mat gray, Mat target) {
+        Imgproc.resize(gray, small, SCALE_BY_FACTOR, FLOW_SCALE, FLOW_SCALE, Imgproc.INTER_AREA);
+        Core.transpose(small, transposed);
+        Core.flip(transposed, target, 1);
+    }
+
+    // Picks fresh features inside every detection box; called right after a detector run
+    public void initialize(Mat gray, DetectionBatch detections) {
+        prepare(gray, previous);
+        boxes = Math.min(detections.size(), maxBoxes);
+        pointCount = 0;
+        int cols = previous.cols();
+        int rows = previous.rows();
+
+        for (int b = 0; b < boxes; b++) {
+            boxStart[b] = pointCount;
+            int x0 = clamp((int) (detections.left[b] * FLOW_SCALE), 0, cols - 1);
+            int y0 = clamp((int) (detections.top[b] * FLOW_SCALE), 0, rows - 1);
+            int x1 = clamp((int) (detections.right[b] * FLOW_SCALE), x0 + 1, cols);
+            int y1 = clamp((int) (detections.bottom[b] * FLOW_SCALE), y0 + 1, rows);
+
+            Mat roi = previous.submat(y0, y1, x0, x1);
+            Imgproc.goodFeaturesToTrack(roi, cornerMat, MAX_CORNERS_PER_BOX, 0.01, 3);
+            roi.release();
+            int found = Math.min((int) cornerMat.total(), MAX_CORNERS_PER_BOX);
+            if (found > 0) {
+                cornerMat.get(0, 0, corners);
+            }
+            for (int c = 0; c < found; c++) {
+                points[pointCount * 2] = corners[c * 2] + x0;
+                points[pointCount * 2 + 1] = corners[c * 2 + 1] + y0;
+                pointCount++;
+            }
+            // Textureless boxes fall back to a 3x3 grid so they can still be followed
+            if (found < MIN_POINTS_PER_BOX) {
+                for (int gy = 1; gy <= 3 && pointCount - boxStart[b] < MAX_CORNERS_PER_BOX; gy++) {
+                    for (int gx = 1; gx <= 3 && pointCount - boxStart[b] < MAX_CORNERS_PER_BOX; gx++) {
+                        points[pointCount * 2] = x0 + (x1 - x0) * gx / 4f;
+                        points[pointCount * 2 + 1] = y0 + (y1 - y0) * gy / 4f;
+                        pointCount++;
+                    }
+                }
+            }
+            boxCount[b] = pointCount - boxStart[b];
+        }
+        lastTrackedFraction = 1.0;
+    }
+
+    // Moves the boxes of the batch to the given frame. Returns false, leaving the batch untouched,
+    // if any box lost its features or the overall tracking confidence is too low.
+    public boolean propagate(Mat gray, DetectionBatch detections) {
+        if (boxes != detections.size()) {
+            return false;
+        }
+        prepare(gray, current);
+        if (pointCount == 0) {
+            // Empty scene, nothing to move
+            swapFrames();
+            return true;
+        }
+
+        previousPointMat.create(pointCount, 1, CvType.CV_32FC2);
+        previousPointMat.put(0, 0, points);
+        Video.calcOpticalFlowPyrLK(previous, current, previousPointMat, nextPointMat, statusMat, errorMat,
+                WINDOW_SIZE, MAX_PYRAMID_LEVEL, CRITERIA);
+        nextPointMat.get(0, 0, nextPoints);
+        statusMat.get(0, 0, status);
+
+        int tracked = 0;
+        boolean allBoxesTracked = true;
+        for (int b = 0; b < boxes; b++) {
+            int good = 0;
+            for (int p = boxStart[b]; p < boxStart[b] + boxCount[b]; p++) {
+                if (status[p] != 0) {
+                    dx[good] = nextPoints[p * 2] - points[p * 2];
+                    dy[good] = nextPoints[p * 2 + 1] - points[p * 2 + 1];
+                    good++;
+                }
+            }
+            tracked += good;
+            if (good < MIN_POINTS_PER_BOX) {
+                allBoxesTracked = false;
+                continue;
+            }
+            shiftX[b] = median(dx, good) / (float) FLOW_SCALE;
+            shiftY[b] = median(dy, good) / (float) FLOW_SCALE;
+        }
+        lastTrackedFraction = (double) tracked / pointCount;
+        if (!allBoxesTracked || lastTrackedFraction < MIN_TRACKED_FRACTION) {
+            return false;
+        }
+
+        for (int b = 0; b < boxes; b++) {
+            detections.left[b] += shiftX[b];
+            detections.right[b] += shiftX[b];
+            detections.centerX[b] += shiftX[b];
+            detections.top[b] += shiftY[b];
+            detections.bottom[b] += shiftY[b];
+            detections.centerY[b] += shiftY[b];
+        }
+
+        // Keep only the surviving features as the starting points for the next frame
+        int kept = 0;
+        for (int b = 0; b < boxes; b++) {
+            int start = kept;
+            for (int p = boxStart[b]; p < boxStart[b] + boxCount[b]; p++) {
+                if (status[p] != 0) {
+                    points[kept * 2] = nextPoints[p * 2];
+                    points[kept * 2 + 1] = nextPoints[p * 2 + 1];
+                    kept++;
+                }
+            }
+            boxStart[b] = start;
+            boxCount[b] = kept - start;
+        }
+        pointCount = kept;
+        swapFrames();
+        return true;
+    }
+
+    private void swapFrames() {
+        Mat swap = previous;
+        previous = current;
+        current = swap;
+    }
+
+    // Median of the first count values; sorts that range in place
+    static float median(float[] values, int count) {
+        Arrays.sort(values, 0, count);
+        return (count & 1) == 1 ? values[count / 2] : (values[count / 2 - 1] + values[count / 2]) / 2f;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    // Fraction of features that survived the last propagation
+    public double getLastTrackedFraction() {
+        return lastTrackedFraction;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.javaapp;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+// Rectifies detection boxes with a fixed camera calibration homography.
+// The homography maps rotated-frame pixels to rectified pixels. Its inverse is sampled once per
+// frame geometry into a fixed-point remap map covering the whole frame; each box is then rectified
+// by remapping only its own ROI through the matching submat of that map, so the per-frame cost
+// scales with the box area instead of the frame area. The same calibration can be carried over to the
+// unrotated camera frame with unrotate, so boxes are rectified wherever they are drawn.
+public class PerspectiveRectifier {
+
+    private static final Scalar BORDER = new Scalar(0, 0, 0, 255);
+
+    private final double[] homography; // Frame -> rectified, row-major 3x3
+    private final double[] inverse; // Rectified -> frame homography, row-major 3x3
+
+    // Cached remap map for the current frame geometry
+    private int mapWidth = -1;
+    private int mapHeight = -1;
+    private final Mat map1 = new Mat(); // CV_16SC2 integer source coordinates
+    private final Mat map2 = new Mat(); // CV_16UC1 interpolation table indices
+    private final Mat scratch = new Mat(); // Rectified ROI, copied back into the frame
+
+    public PerspectiveRectifier(double[] homography) {
+        this.inverse = invert(homography);
+        this.homography = homography.clone();
+    }
+
+    public double[] getHomography() {
+        return homography.clone();
+    }
+
+    // Rectifies the box [left, top, right, bottom) of the frame in place
+    public void rectify(Mat frame, int left, int top, int right, int bottom) {
+        ensureMaps(frame.cols(), frame.rows());
+        left = Math.max(0, left);
+        top = Math.max(0, top);
+        right = Math.min(frame.cols(), right);
+        bottom = Math.min(frame.rows(), bottom);
+        if (right <= left || bottom <= top) {
+            return;
+        }
+
+        Mat roiMap1 = map1.submat(top, bottom, left, right);
+        Mat roiMap2 = map2.submat(top, bottom, left, right);
+        Mat roi = frame.submat(top, bottom, left, right);
+        // The map holds absolute frame coordinates, so the whole frame is the source
+        Imgproc.remap(frame, scratch, roiMap1, roiMap2, Imgproc.INTER_LINEAR, Core.BORDER_CONSTANT, BORDER);
+        scratch.copyTo(roi);
+        roi.release();
+        roiMap2.release();
+        roiMap1.release();
+    }
+
+    // Builds the remap map when the frame geometry changes
+    private void ensureMaps(int width, int height) {
+        if (width == mapWidth && height == mapHeight) {
+            return;
+        }
+        float[] xs = new float[width * height];
+        float[] ys = new float[width * height];
+        computeMaps(inverse, width, height, xs, ys);
+
+        Mat mapX = new Mat(height, width, CvType.CV_32FC1);
+        Mat mapY = new Mat(height, width, CvType.CV_32FC1);
+        mapX.put(0, 0, xs);
+        mapY.put(0, 0, ys);
+        Imgproc.convertMaps(mapX, mapY, map1, map2, CvType.CV_16SC2);
+        mapX.release();
+        mapY.release();
+        mapWidth = width;
+        mapHeight = height;
+    }
+
+    // Samples the rectified -> frame homography at every pixel. Points at or behind the horizon
+    // of the homography get -1 so remap fills them with the border color.
+    static void computeMaps(double[] inverse, int width, int height, float[] mapX, float[] mapY) {
+        for (int y = 0; y < height; y++) {
+            // Each row is a line in the source, so the projective terms advance linearly along x
+            double sx = inverse[1] * y + inverse[2];
+            double sy = inverse[4] * y + inverse[5];
+            double sw = inverse[7] * y + inverse[8];
+            int o = y * width;
+            for (int x = 0; x < width; x++) {
+                if (sw > 1e-9) {
+                    mapX[o + x] = (float) (sx / sw);
+                    mapY[o + x] = (float) (sy / sw);
+                } else {
+                    mapX[o + x] = -1;
+                    mapY[o + x] = -1;
+                }
+                sx += inverse[0];
+                sy += inverse[3];
+                sw += inverse[6];
+            }
+        }
+    }
+
+    // Expresses a homography of the rotated frame, rotatedWidth pixels wide, in camera-frame pixels:
+    // camera (x, y) is rotated (rotatedWidth - y, x), and the rectified result is rotated back the same way
+    static double[] unrotate(double[] homography, int rotatedWidth) {
+        double[] toRotated = {0, -1, rotatedWidth, 1, 0, 0, 0, 0, 1};
+        double[] toCamera = {0, 1, 0, -1, 0, rotatedWidth, 0, 0, 1};
+        return multiply(toCamera, multiply(homography, toRotated));
+    }
+
+    // Product of two row-major 3x3 matrices
+    private static double[] multiply(double[] a, double[] b) {
+        double[] product = new double[9];
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                product[r * 3 + c] = a[r * 3] * b[c] + a[r * 3 + 1] * b[3 + c] + a[r * 3 + 2] * b[6 + c];
+            }
+        }
+        return product;
+    }
+
+    // Inverts a row-major 3x3 matrix
+    static double[] invert(double[] m) {
+        if (m == null || m.length != 9) {
+            throw new IllegalArgumentException("Homography must be a 3x3 row-major matrix");
+        }
+        double c00 = m[4] * m[8] - m[5] * m[7];
+        double c01 = m[5] * m[6] - m[3] * m[8];
+        double c02 = m[3] * m[7] - m[4] * m[6];
+        double det = m[0] * c00 + m[1] * c01 + m[2] * c02;
+        if (Math.abs(det) < 1e-12) {
+            throw new IllegalArgumentException("Homography is singular");
+        }
+        return new double[]{
+                c00 / det, (m[2] * m[7] - m[1] * m[8]) / det, (m[1] * m[5] - m[2] * m[4]) / det,
+                c01 / det, (m[0] * m[8] - m[2] * m[6]) / det, (m[2] * m[3] - m[0] * m[5]) / det,
+                c02 / det, (m[1] * m[6] - m[0] * m[7]) / det, (m[0] * m[4] - m[1] * m[3]) / det
+        };
+    }
+
+    public void release() {
+        map1.release();
+        map2.release();
+        scratch.release();
+        mapWidth = -1;
+        mapHeight = -1;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.javaapp;
+
+// A part of the rotated (model-oriented) frame to run detection on, given as fractions of the frame
+// so it survives resolution changes. A tiled region is split into overlapping model-sized tiles
+// instead of being squashed into a single model input.
+public class RegionOfInterest {
+
+    final float left;
+    final float top;
+    final float right;
+    final float bottom;
+    final boolean tiled;
+    final float overlap; // Minimum overlap between neighbouring tiles, as a fraction of the tile size
+
+    public RegionOfInterest(float left, float top, float right, float bottom) {
+        this(left, top, right, bottom, false, 0f);
+    }
+
+    public RegionOfInterest(float left, float top, float right, float bottom, boolean tiled, float overlap) {
+        if (left < 0 || top < 0 || right > 1 || bottom > 1 || left >= right || top >= bottom) {
+            throw new IllegalArgumentException("Region must lie within [0, 1] and be non-empty");
+        }
+        if (overlap < 0 || overlap >= 1) {
+            throw new IllegalArgumentException("Tile overlap must be in [0, 1)");
+        }
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.tiled = tiled;
+        this.overlap = overlap;
+    }
+
+    // The whole frame split into tiles
+    public static RegionOfInterest tiledFullFrame(float overlap) {
+        return new RegionOfInterest(0f, 0f, 1f, 1f, true, overlap);
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.javaapp;
+
+// Bounded gallery of recently lost tracks for appearance-based re-identification.
+// Each entry keeps the track id, its appearance descriptor, the time it was lost, copies of its box
+// history and its trajectory and its class and ConstantVelocityFilter state, all in preallocated
+// primitive arrays, so the memory budget is fixed at construction. Entries that leave without being
+// re-identified, by eviction, expiry or clear, are handed to the listener first, so a lost vehicle's
+// path is only finished once it cannot continue any more. A detection only matches a lost track of the same class
+// whose motion, predicted to the time of the detection, places it inside the filter's gate there, so
+// similar-looking vehicles elsewhere in the frame do not take over its id. The gate widens with the
+// time the track has been gone, as the prediction grows less certain.
+// Entries form an LRU list through int links: adding is O(1) and evicts the least recently lost
+// entry when full, and a re-identified or expired entry is unlinked in O(1).
+public class ReidGallery {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    // Notified about an entry that leaves the gallery without being re-identified, while its data
+    // can still be read
+    public interface Listener {
+        void onForgotten(int entry);
+    }
+
+    private final int capacity;
+    private final int descriptorSize;
+    private final int historyCapacity;
+    private final int trajectoryBudget;
+    private final float maxDistance;
+    private final long maxAge;
+    private final ConstantVelocityFilter motion;
+    private final double gateChiSquare;
+    private final double ticksPerSecond; // Of the clock of add and match; the filter works in seconds
+    private final double[] predicted = new double[ConstantVelocityFilter.STATE_SIZE];
+    private Listener listener;
+
+    // Entry data
+    private final int[] ids;
+    private final long[] lostTime;
+    private final float[] descriptors;
+    private final long[] historyTimes; // Oldest first, historyCapacity entries per gallery entry
+    private final float[] historyBoxes;
+    private final int[] historyCounts;
+    private final long[] trajectoryTimes; // Oldest first, trajectoryBudget points per gallery entry
+    private final float[] trajectoryX;
+    private final float[] trajectoryY;
+    private final int[] trajectoryCounts;
+    private final int[] classes;
+    private final double[] motionStates; // ConstantVelocityFilter.STATE_SIZE values per entry
+    private final long[] motionTime; // Time motionStates is predicted to, NONE until setMotion
+
+    // LRU list, newest at head; free entries are chained through next
+    private final int[] prev;
+    private final int[] next;
+    private int head = -1;
+    private int tail = -1;
+    private int free = 0;
+    private int size = 0;
+
+    // Statistics
+    private long evictions = 0;
+    private long reidentified = 0;
+
+    // Entries match a query when the Hellinger distance of their descriptors is below maxDistance,
+    // they were lost at most maxAge ago, in the clock of the times passed to add and match, which runs
+    // at ticksPerSecond, and the squared Mahalanobis distance of the query from their predicted
+    // position under motion is below gateChiSquare
+    public ReidGallery(int capacity, int descriptorSize, int historyCapacity, int trajectoryBudget, float maxDistance,
+                       long maxAge, ConstantVelocityFilter motion, double gateChiSquare, long ticksPerSecond) {
+        if (capacity < 1 || descriptorSize < 1 || historyCapacity < 1 || trajectoryBudget < 0 || ticksPerSecond < 1) {
+            throw new IllegalArgumentException("Invalid gallery size");
+        }
+        this.capacity = capacity;
+        this.descriptorSize = descriptorSize;
+        this.historyCapacity = historyCapacity;
+        this.trajectoryBudget = trajectoryBudget;
+        this.maxDistance = maxDistance;
+        this.maxAge = maxAge;
+        this.motion = motion;
+        this.gateChiSquare = gateChiSquare;
+        this.ticksPerSecond = ticksPerSecond;
+        ids = new int[capacity];
+        lostTime = new long[capacity];
+        descriptors = new float[capacity * descriptorSize];
+        historyTimes = new long[capacity * historyCapacity];
+        historyBoxes = new float[capacity * historyCapacity * 4];
+        historyCounts = new int[capacity];
+        trajectoryTimes = new long[capacity * trajectoryBudget];
+        trajectoryX = new float[capacity * trajectoryBudget];
+        trajectoryY = new float[capacity * trajectoryBudget];
+        trajectoryCounts = new int[capacity];
+        classes = new int[capacity];
+        motionStates = new double[capacity * ConstantVelocityFilter.STATE_SIZE];
+        motionTime = new long[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        for (int e = 0; e < capacity; e++) {
+            next[e] = e + 1 < capacity ? e + 1 : -1;
+        }
+    }
+
+    // Stores a lost track and returns its entry, evicting the least recently lost one if the gallery is full.
+    // Fill the history, trajectory and motion of the entry with setHistory, setTrajectory and setMotion
+    // afterwards; entries without motion never match.
+    public int add(int id, long time, float[] descriptor, int descriptorOffset) {
+        int e;
+        if (free >= 0) {
+            e = free;
+            free = next[e];
+            size++;
+        } else {
+            e = tail;
+            unlink(e);
+            evictions++;
+            if (listener != null) {
+                listener.onForgotten(e);
+            }
+        }
+        ids[e] = id;
+        lostTime[e] = time;
+        System.arraycopy(descriptor, descriptorOffset, descriptors, e * descriptorSize, descriptorSize);
+        historyCounts[e] = 0;
+        trajectoryCounts[e] = 0;
+        motionTime[e] = NONE;
+
+        // Link at the head
+        prev[e] = -1;
+        next[e] = head;
+        if (head >= 0) {
+            prev[head] = e;
+        }
+        head = e;
+        if (tail < 0) {
+            tail = e;
+        }
+        return e;
+    }
+
+    // Copies count history entries, oldest first, into the entry
+    public void setHistory(int entry, long[] times, float[] boxes, int count) {
+        count = Math.min(count, historyCapacity);
+        System.arraycopy(times, 0, historyTimes, entry * historyCapacity, count);
+        System.arraycopy(boxes, 0, historyBoxes, entry * historyCapacity * 4, count * 4);
+        historyCounts[entry] = count;
+    }
+
+    // Copies count trajectory points, oldest first, into the entry
+    public void setTrajectory(int entry, long[] times, float[] xs, float[] ys, int count) {
+        count = Math.min(count, trajectoryBudget);
+        System.arraycopy(times, 0, trajectoryTimes, entry * trajectoryBudget, count);
+        System.arraycopy(xs, 0, trajectoryX, entry * trajectoryBudget, count);
+        System.arraycopy(ys, 0, trajectoryY, entry * trajectoryBudget, count);
+        trajectoryCounts[entry] = count;
+    }
+
+    // Copies the class of the lost track and its motion state, predicted up to time, into the entry
+    public void setMotion(int entry, int classId, double[] state, int stateOffset, long time) {
+        classes[entry] = classId;
+        System.arraycopy(state, stateOffset, motionStates, entry * ConstantVelocityFilter.STATE_SIZE,
+                ConstantVelocityFilter.STATE_SIZE);
+        motionTime[entry] = time;
+    }
+
+    // Finds the closest entry to the descriptor of a detection of the class centered at (x, y) within
+    // the distance, age and motion limits and returns it, or -1. Expired entries met on the way are dropped.
+    public int match(float[] descriptor, int descriptorOffset, int classId, double x, double y, long now) {
+        int best = -1;
+        float bestDistance = maxDistance;
+        for (int e = head; e >= 0; ) {
+            int following = next[e];
+            if (now - lostTime[e] > maxAge) {
+                forget(e);
+            } else if (classes[e] == classId && motionTime[e] != NONE && withinGate(e, x, y, now)) {
+                float distance = distance(descriptor, descriptorOffset, descriptors, e * descriptorSize, descriptorSize);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = e;
+                }
+            }
+            e = following;
+        }
+        return best;
+    }
+
+    // Whether (x, y) at now is inside the gate around the entry's predicted position
+    private boolean withinGate(int e, double x, double y, long now) {
+        System.arraycopy(motionStates, e * ConstantVelocityFilter.STATE_SIZE, predicted, 0, ConstantVelocityFilter.STATE_SIZE);
+        motion.predict(predicted, 0, (now - motionTime[e]) / ticksPerSecond);
+        return motion.mahalanobisSq(predicted, 0, x, y) < gateChiSquare;
+    }
+
+    // Drops the entries lost more than maxAge before now
+    public void expire(long now) {
+        for (int e = head; e >= 0; ) {
+            int following = next[e];
+            if (now - lostTime[e] > maxAge) {
+                forget(e);
+            }
+            e = following;
+        }
+    }
+
+    // Forgets every entry, e.g. when the clock restarts
+    public void clear() {
+        while (head >= 0) {
+            forget(head);
+        }
+    }
+
+    // Releases an entry that was not re-identified, handing it to the listener first
+    private void forget(int e) {
+        if (listener != null) {
+            listener.onForgotten(e);
+        }
+        release(e);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Removes a matched entry after its id and history have been taken over
+    public void take(int entry) {
+        release(entry);
+        reidentified++;
+    }
+
+    private void release(int e) {
+        unlink(e);
+        next[e] = free;
+        free = e;
+        size--;
+    }
+
+    private void unlink(int e) {
+        if (prev[e] >= 0) {
+            next[prev[e]] = next[e];
+        } else {
+            head = next[e];
+        }
+        if (next[e] >= 0) {
+            prev[next[e]] = prev[e];
+        } else {
+            tail = prev[e];
+        }
+    }
+
+    // Hellinger distance between two L1-normalized histograms, in [0, 1]
+    static float distance(float[] a, int ao, float[] b, int bo, int n) {
+        double coefficient = 0;
+        for (int i = 0; i < n; i++) {
+            coefficient += Math.sqrt((double) a[ao + i] * b[bo + i]);
+        }
+        return (float) Math.sqrt(Math.max(0, 1 - coefficient));
+    }
+
+    public int getId(int entry) {
+        return ids[entry];
+    }
+
+    public int getClassId(int entry) {
+        return classes[entry];
+    }
+
+    public int getHistoryCount(int entry) {
+        return historyCounts[entry];
+    }
+
+    // Copies the entry's history, oldest first, into the given arrays and returns the entry count
+    public int getHistory(int entry, long[] times, float[] boxes) {
+        int count = historyCounts[entry];
+        System.arraycopy(historyTimes, entry * historyCapacity, times, 0, count);
+        System.arraycopy(historyBoxes, entry * historyCapacity * 4, boxes, 0, count * 4);
+        return count;
+    }
+
+    // Copies the entry's trajectory, oldest first, into the given arrays and returns the point count
+    public int getTrajectory(int entry, long[] times, float[] xs, float[] ys) {
+        int count = trajectoryCounts[entry];
+        System.arraycopy(trajectoryTimes, entry * trajectoryBudget, times, 0, count);
+        System.arraycopy(trajectoryX, entry * trajectoryBudget, xs, 0, count);
+        System.arraycopy(trajectoryY, entry * trajectoryBudget, ys, 0, count);
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getReidentified() {
+        return reidentified;
+    }
+}
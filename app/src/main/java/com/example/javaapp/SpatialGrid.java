@@ -0,0 +1,139 @@
+package com.example.javaapp;
+
+import java.util.Arrays;
+
+// Uniform-grid spatial hash of points for neighbour lookups within a fixed radius.
+// Points are bucketed by their cell and identified by their insertion index, so callers keep whatever
+// the points stand for in their own arrays; with the cell size equal to the search radius a query
+// only has to look at the 3x3 cells around the query point. Cells live in an open-addressing
+// table that is cleared in O(1) by bumping a generation stamp, so rebuilding the grid every frame
+// does not allocate once the arrays have grown to the scene size.
+public class SpatialGrid {
+
+    private final double cellSize;
+
+    // Points, chained per cell through next[]
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private int[] next = new int[16];
+    private int size = 0;
+
+    // Cell table: key -> index of the first point of that cell
+    private long[] keys = new long[32];
+    private int[] heads = new int[32];
+    private int[] stamps = new int[32];
+    private int generation = 1;
+
+    public SpatialGrid(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Invalid cell size " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    // Removes all points
+    public void clear() {
+        size = 0;
+        if (++generation == 0) {
+            // Stamp wrapped around; wipe the table so no stale cell looks current
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    // Adds a point; its insertion index is the number of points added since the last clear
+    public void insert(double x, double y) {
+        if (size == xs.length) {
+            grow();
+        }
+        if (size * 2 >= keys.length) {
+            rehash(keys.length * 2);
+        }
+        int i = size++;
+        xs[i] = x;
+        ys[i] = y;
+        link(i);
+    }
+
+    // Writes the insertion indices of all points strictly nearer than maxDistance to (x, y) into out
+    // and returns their count. out must hold at least size() entries; maxDistance may not exceed the cell size.
+    public int within(double x, double y, double maxDistance, int[] out) {
+        if (maxDistance > cellSize) {
+            throw new IllegalArgumentException("Search radius " + maxDistance + " exceeds cell size " + cellSize);
+        }
+        int cx = cell(x);
+        int cy = cell(y);
+        double maxSq = maxDistance * maxDistance;
+        int count = 0;
+        for (int gy = cy - 1; gy <= cy + 1; gy++) {
+            for (int gx = cx - 1; gx <= cx + 1; gx++) {
+                int slot = find(key(gx, gy));
+                if (stamps[slot] != generation) {
+                    continue;
+                }
+                for (int i = heads[slot]; i >= 0; i = next[i]) {
+                    double dx = xs[i] - x;
+                    double dy = ys[i] - y;
+                    if (dx * dx + dy * dy < maxSq) {
+                        out[count++] = i;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int cell(double v) {
+        return (int) Math.floor(v / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    // Slot holding the key in the current generation, or the free slot where it would go
+    private int find(long key) {
+        int mask = keys.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h >>> 40) & mask;
+        while (stamps[slot] == generation && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Prepends point i to the chain of its cell
+    private void link(int i) {
+        long key = key(cell(xs[i]), cell(ys[i]));
+        int slot = find(key);
+        if (stamps[slot] != generation) {
+            stamps[slot] = generation;
+            keys[slot] = key;
+            next[i] = -1;
+        } else {
+            next[i] = heads[slot];
+        }
+        heads[slot] = i;
+    }
+
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+
+    private void rehash(int tableSize) {
+        keys = new long[tableSize];
+        heads = new int[tableSize];
+        stamps = new int[tableSize];
+        generation = 1;
+        for (int i = 0; i < size; i++) {
+            link(i);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.javaapp;
+
+// A vehicle that stayed above the limit of a speed zone for long enough. Times are capture timestamps
+// in ns, the position is the box's bottom-center in fractions of the rotated frame when the violation
+// was confirmed.
+public class SpeedViolation {
+
+    // Receives every violation once, on the detector thread
+    public interface Listener {
+        void onViolation(SpeedViolation violation);
+    }
+
+    final int trackId;
+    final int classId;
+    final SpeedZone zone;
+    final long startNanos; // First update above the limit
+    final long timestampNanos; // Update that confirmed the violation
+    final double peakSpeed; // km/h, highest confident speed in between
+    final float x;
+    final float y;
+
+    SpeedViolation(int trackId, int classId, SpeedZone zone, long startNanos, long timestampNanos,
+                   double peakSpeed, float x, float y) {
+        this.trackId = trackId;
+        this.classId = classId;
+        this.zone = zone;
+        this.startNanos = startNanos;
+        this.timestampNanos = timestampNanos;
+        this.peakSpeed = peakSpeed;
+        this.x = x;
+        this.y = y;
+    }
+
+    public int getTrackId() {
+        return trackId;
+    }
+
+    public int getClassId() {
+        return classId;
+    }
+
+    public SpeedZone getZone() {
+        return zone;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public double getPeakSpeed() {
+        return peakSpeed;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+}
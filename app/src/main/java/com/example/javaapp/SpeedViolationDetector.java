@@ -0,0 +1,171 @@
+package com.example.javaapp;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Streaming speed-limit check over per-track speed updates, with state kept per track-table slot in
+// parallel primitive arrays like TrackTable, so each update is O(1) for a fixed zone layout and
+// allocates nothing unless it reports a violation.
+// A track enters an episode when a confident speed exceeds its zone's limit by enterMargin and leaves
+// it when the speed drops below limit + exitMargin, so a speed hovering around the limit does not
+// toggle. An episode lasting minDuration is reported, at most once per track id, including tracks
+// that are re-identified after being lost. Zones are checked in order and a vehicle keeps its zone as
+// long as it stays inside it; outside every zone nothing is checked.
+// Only updates backed by a fresh measurement should be fed in. An episode whose track went without
+// updates for longer than maxGap, e.g. while it coasted through an occlusion, starts over, so time
+// without evidence never counts towards minDuration. Callers should scale maxGap with the rate updates
+// actually arrive at, via setMaxGap, so a slow device can still report.
+public class SpeedViolationDetector {
+
+    private static final long NONE = Long.MIN_VALUE;
+    private static final int RECENT_REPORTS = 64; // Reported track ids remembered for re-identified tracks
+
+    private final double enterMargin; // km/h over the limit
+    private final double exitMargin;
+    private final long minDuration; // In the clock of the update times
+    private long maxGap;
+    private final float minConfidence;
+    private SpeedZone[] zones = new SpeedZone[0];
+
+    // Per-slot state
+    private int[] trackId = new int[0];
+    private int[] zone = new int[0]; // Index into zones, -1 outside all
+    private long[] overSince = new long[0]; // Start of the current episode, NONE if none
+    private long[] lastUpdate = new long[0];
+    private double[] peak = new double[0];
+    private boolean[] reported = new boolean[0];
+
+    private final int[] recentReports = new int[RECENT_REPORTS];
+    private int recentCount = 0;
+    private long violations = 0;
+
+    public SpeedViolationDetector(double enterMargin, double exitMargin, long minDuration, long maxGap,
+                                  float minConfidence) {
+        if (exitMargin > enterMargin || minDuration < 0 || maxGap < 0) {
+            throw new IllegalArgumentException("Exit margin " + exitMargin + " above entry margin " + enterMargin
+                    + " or negative duration " + minDuration + " or gap " + maxGap);
+        }
+        this.enterMargin = enterMargin;
+        this.exitMargin = exitMargin;
+        this.minDuration = minDuration;
+        this.maxGap = maxGap;
+        this.minConfidence = minConfidence;
+    }
+
+    // Changes the longest gap between updates an episode survives, e.g. as the update rate changes
+    public void setMaxGap(long maxGap) {
+        if (maxGap < 0) {
+            throw new IllegalArgumentException("Negative gap " + maxGap);
+        }
+        this.maxGap = maxGap;
+    }
+
+    // Replaces the zones, in priority order; episodes in progress start over
+    public void setZones(List<SpeedZone> zones) {
+        this.zones = zones.toArray(new SpeedZone[0]);
+        Arrays.fill(zone, -1);
+        Arrays.fill(overSince, NONE);
+    }
+
+    // Forgets all episodes and reported tracks, e.g. when the clock restarts; the violation count is kept
+    public void reset() {
+        Arrays.fill(trackId, 0);
+        Arrays.fill(zone, -1);
+        Arrays.fill(overSince, NONE);
+        Arrays.fill(reported, false);
+        recentCount = 0;
+    }
+
+    // Feeds the speed of the track in the slot at time, with the bottom-center of its box in fractions
+    // of the rotated frame. Returns the violation this update confirms, or null.
+    public SpeedViolation update(int slot, int id, int classId, long time, float x, float y,
+                                 double speed, float confidence) {
+        if (slot >= trackId.length) {
+            grow(Math.max(slot + 1, trackId.length * 2));
+        }
+        if (trackId[slot] != id) {
+            // A new track took over the slot
+            trackId[slot] = id;
+            zone[slot] = -1;
+            overSince[slot] = NONE;
+            reported[slot] = wasReported(id);
+        }
+        if (reported[slot]) {
+            return null;
+        }
+        if (overSince[slot] != NONE && time - lastUpdate[slot] > maxGap) {
+            overSince[slot] = NONE; // The episode lapsed without evidence
+        }
+        lastUpdate[slot] = time;
+        int z = locate(slot, x, y);
+        if (z != zone[slot]) {
+            zone[slot] = z;
+            overSince[slot] = NONE;
+        }
+        if (z < 0) {
+            return null;
+        }
+        double limit = zones[z].limit;
+        if (overSince[slot] == NONE) {
+            if (confidence < minConfidence || speed <= limit + enterMargin) {
+                return null;
+            }
+            overSince[slot] = time;
+            peak[slot] = speed;
+        } else if (speed < limit + exitMargin) {
+            overSince[slot] = NONE;
+            return null;
+        } else if (confidence >= minConfidence) {
+            peak[slot] = Math.max(peak[slot], speed);
+        }
+        if (time - overSince[slot] < minDuration) {
+            return null;
+        }
+        reported[slot] = true;
+        recentReports[(int) (violations % RECENT_REPORTS)] = id;
+        recentCount = Math.min(recentCount + 1, RECENT_REPORTS);
+        violations++;
+        return new SpeedViolation(id, classId, zones[z], overSince[slot], time, peak[slot], x, y);
+    }
+
+    // Zone containing the point, trying the slot's current zone first
+    private int locate(int slot, float x, float y) {
+        int current = zone[slot];
+        if (current >= 0 && zones[current].contains(x, y)) {
+            return current;
+        }
+        for (int z = 0; z < zones.length; z++) {
+            if (z != current && zones[z].contains(x, y)) {
+                return z;
+            }
+        }
+        return -1;
+    }
+
+    private boolean wasReported(int id) {
+        for (int i = 0; i < recentCount; i++) {
+            if (recentReports[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void grow(int n) {
+        int old = trackId.length;
+        trackId = Arrays.copyOf(trackId, n);
+        zone = Arrays.copyOf(zone, n);
+        overSince = Arrays.copyOf(overSince, n);
+        lastUpdate = Arrays.copyOf(lastUpdate, n);
+        peak = Arrays.copyOf(peak, n);
+        reported = Arrays.copyOf(reported, n);
+        // Track ids start at 1, so 0 marks a slot that has not been used yet
+        Arrays.fill(zone, old, n, -1);
+        Arrays.fill(overSince, old, n, NONE);
+    }
+
+    // Violations reported so far
+    public long getViolations() {
+        return violations;
+    }
+}
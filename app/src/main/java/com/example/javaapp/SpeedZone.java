@@ -0,0 +1,76 @@
+package com.example.javaapp;
+
+// A part of the road with its own speed limit, e.g. one lane or a stretch before a crossing, given as
+// a polygon in fractions of the rotated (model-oriented) frame like a RegionOfInterest. Vehicles are
+// placed in a zone by the bottom-center of their box, where they touch the road.
+public class SpeedZone {
+
+    final String name;
+    final double limit; // km/h
+    final float[] xs;
+    final float[] ys;
+    // Bounding box, so most points outside are rejected without walking the edges
+    final float minX;
+    final float minY;
+    final float maxX;
+    final float maxY;
+
+    // polygon holds the corners in order as [x0, y0, x1, y1, ...]
+    public SpeedZone(String name, double limit, float[] polygon) {
+        if (!(limit > 0)) {
+            throw new IllegalArgumentException("Speed limit must be positive");
+        }
+        if (polygon.length < 6 || polygon.length % 2 != 0) {
+            throw new IllegalArgumentException("Zone needs three or more corners");
+        }
+        this.name = name;
+        this.limit = limit;
+        int n = polygon.length / 2;
+        xs = new float[n];
+        ys = new float[n];
+        float x0 = Float.POSITIVE_INFINITY;
+        float y0 = Float.POSITIVE_INFINITY;
+        float x1 = Float.NEGATIVE_INFINITY;
+        float y1 = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            xs[i] = polygon[i * 2];
+            ys[i] = polygon[i * 2 + 1];
+            x0 = Math.min(x0, xs[i]);
+            y0 = Math.min(y0, ys[i]);
+            x1 = Math.max(x1, xs[i]);
+            y1 = Math.max(y1, ys[i]);
+        }
+        minX = x0;
+        minY = y0;
+        maxX = x1;
+        maxY = y1;
+    }
+
+    // The whole frame under one limit
+    public static SpeedZone wholeFrame(String name, double limit) {
+        return new SpeedZone(name, limit, new float[]{0f, 0f, 1f, 0f, 1f, 1f, 0f, 1f});
+    }
+
+    // Whether the point lies inside the polygon, by the even-odd rule
+    public boolean contains(float x, float y) {
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return false;
+        }
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > y) != (ys[j] > y)
+                    && x < xs[j] + (y - ys[j]) * (xs[i] - xs[j]) / (ys[i] - ys[j])) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.javaapp;
+
+import org.tensorflow.lite.Interpreter;
+
+import java.nio.ByteBuffer;
+
+// Common TFLite plumbing: the interpreter writes straight into the context's output tensors
+public abstract class TfliteBackend implements DetectorBackend {
+
+    private final String name;
+    protected final Interpreter interpreter;
+    private int batchSize = 1; // Current batch dimension of the input tensor
+
+    protected TfliteBackend(String name, ByteBuffer model, Interpreter.Options options) {
+        this(name, new Interpreter(model, options));
+    }
+
+    // Takes over an interpreter built by the subclass, e.g. one that owns delegates to clean up on failure
+    protected TfliteBackend(String name, Interpreter interpreter) {
+        this.name = name;
+        this.interpreter = interpreter;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void run(FrameContext ctx) {
+        resizeBatch(ctx, 1);
+        ctx.inputBuffer.rewind();
+        ctx.detections.boxTensor.rewind();
+        interpreter.runForMultipleInputsOutputs(ctx.inputs, ctx.outputs);
+        ctx.detections.readBoxes();
+    }
+
+    @Override
+    public boolean supportsBatching() {
+        return true;
+    }
+
+    @Override
+    public void runBatch(FrameContext ctx, int count) {
+        resizeBatch(ctx, count);
+        TileBatch batch = ctx.batch;
+        interpreter.runForMultipleInputsOutputs(batch.inputs(count), batch.results.tensors(count));
+    }
+
+    // Changes the batch dimension of the input tensor; the interpreter re-plans its tensors only when it
+    // changes. If the model rejects the new batch size, the previous shape is restored before the error
+    // is rethrown, so later runs at that size keep working.
+    private void resizeBatch(FrameContext ctx, int count) {
+        if (count == batchSize) {
+            return;
+        }
+        int size = ctx.getInputSize();
+        try {
+            interpreter.resizeInput(0, new int[]{count, size, size, 3});
+            interpreter.allocateTensors();
+        } catch (RuntimeException e) {
+            interpreter.resizeInput(0, new int[]{batchSize, size, size, 3});
+            interpreter.allocateTensors();
+            throw e;
+        }
+        batchSize = count;
+    }
+
+    @Override
+    public void close() {
+        interpreter.close();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.javaapp;
+
+import org.tensorflow.lite.Interpreter;
+
+import java.nio.ByteBuffer;
+
+// TFLite on the CPU with the XNNPACK delegate. Works everywhere and serves as the reference backend.
+public class TfliteCpuBackend extends TfliteBackend {
+
+    public static final String NAME = "tflite-cpu";
+
+    public TfliteCpuBackend(ByteBuffer model, int numThreads) {
+        super(NAME, model, createOptions(numThreads));
+    }
+
+    private static Interpreter.Options createOptions(int numThreads) {
+        Interpreter.Options options = new Interpreter.Options();
+        options.setNumThreads(numThreads); // Set number of threads for the interpreter
+        options.setUseXNNPACK(true);
+        return options;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.javaapp;
+
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.nnapi.NnApiDelegate;
+
+import java.nio.ByteBuffer;
+
+// TFLite with the NNAPI delegate, which hands supported ops to the device's DSP/NPU/GPU drivers
+public class TfliteNnapiBackend extends TfliteBackend {
+
+    public static final String NAME = "tflite-nnapi";
+
+    private final NnApiDelegate delegate;
+
+    public TfliteNnapiBackend(ByteBuffer model) {
+        this(model, new NnApiDelegate());
+    }
+
+    private TfliteNnapiBackend(ByteBuffer model, NnApiDelegate delegate) {
+        super(NAME, createInterpreter(model, delegate));
+        this.delegate = delegate;
+    }
+
+    // Closes the delegate if the interpreter cannot be built around it, as nothing else would
+    private static Interpreter createInterpreter(ByteBuffer model, NnApiDelegate delegate) {
+        try {
+            return new Interpreter(model, new Interpreter.Options().addDelegate(delegate));
+        } catch (RuntimeException e) {
+            delegate.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        delegate.close();
+    }
+}
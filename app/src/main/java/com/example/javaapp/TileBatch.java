@@ -0,0 +1,90 @@
+package com.example.javaapp;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Input and output buffers for running several crops through the model in one invocation.
+// Crop k is written into input slot k; after the run, results.demultiplex(k, ...) copies that
+// slot's outputs into the raw arrays of a DetectionBatch so they can be filtered and mapped back to
+// the frame like a single-crop run. Everything is allocated once for the largest batch; smaller
+// batches use views sized exactly to the batch, as the interpreter expects.
+public class TileBatch {
+
+    private final int slots;
+    private final int inputSize;
+
+    // One RGB image per slot, stacked in a single direct buffer
+    final ByteBuffer inputBuffer;
+    final Mat tensor;
+    final Mat[] slotTensors; // Row ranges of tensor, one per slot
+    final TileOutputs results;
+
+    // Interpreter inputs and dnn image lists for a batch of n slots, at index n - 1
+    private final List<Object[]> inputsBySize;
+    private final List<List<Mat>> imagesBySize;
+
+    public TileBatch(int slots, int inputSize, int maxDetections) {
+        results = new TileOutputs(slots, maxDetections);
+        this.slots = slots;
+        this.inputSize = inputSize;
+
+        int imageBytes = inputSize * inputSize * 3;
+        inputBuffer = ByteBuffer.allocateDirect(slots * imageBytes);
+        inputBuffer.order(ByteOrder.nativeOrder());
+        tensor = new Mat(slots * inputSize, inputSize, CvType.CV_8UC3, inputBuffer);
+        slotTensors = new Mat[slots];
+        for (int k = 0; k < slots; k++) {
+            slotTensors[k] = tensor.rowRange(k * inputSize, (k + 1) * inputSize);
+        }
+
+        inputsBySize = new ArrayList<>(slots);
+        imagesBySize = new ArrayList<>(slots);
+        List<Mat> allImages = Arrays.asList(slotTensors);
+        for (int n = 1; n <= slots; n++) {
+            inputsBySize.add(new Object[]{view(inputBuffer, n * imageBytes)});
+            imagesBySize.add(allImages.subList(0, n));
+        }
+    }
+
+    // Direct view over the first bytes of the buffer, sharing its memory
+    static ByteBuffer view(ByteBuffer buffer, int bytes) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(bytes);
+        ByteBuffer view = duplicate.slice();
+        view.order(ByteOrder.nativeOrder());
+        return view;
+    }
+
+    // Interpreter inputs for a run on the first n slots
+    Object[] inputs(int n) {
+        Object[] inputs = inputsBySize.get(n - 1);
+        ((ByteBuffer) inputs[0]).rewind();
+        return inputs;
+    }
+
+    // The first n slot images, for engines that take a list of images
+    List<Mat> images(int n) {
+        return imagesBySize.get(n - 1);
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public void release() {
+        for (Mat slot : slotTensors) {
+            slot.release();
+        }
+        tensor.release();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.javaapp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Output half of a TileBatch: the detections of every slot of a batched model run. Engines either
+// write into the tensors directly or put rows one by one; demultiplex(k, ...) then copies slot k
+// into the raw arrays of a DetectionBatch so they can be filtered and mapped back to the frame
+// through the slot's own crop, like a single-crop run.
+public class TileOutputs {
+
+    private final int slots;
+    private final int maxDetections;
+
+    // Outputs of all slots: [slot][detection] scores and classes, [slot][detection][4] boxes
+    private final ByteBuffer boxTensor;
+    private final ByteBuffer classTensor;
+    private final ByteBuffer scoreTensor;
+    private final FloatBuffer boxView;
+    private final FloatBuffer classView;
+    private final FloatBuffer scoreView;
+
+    // Interpreter output maps for a batch of n slots, at index n - 1
+    private final List<Map<Integer, Object>> tensorsBySize;
+
+    public TileOutputs(int slots, int maxDetections) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("Invalid batch size " + slots);
+        }
+        this.slots = slots;
+        this.maxDetections = maxDetections;
+        boxTensor = allocateFloats(slots * maxDetections * 4);
+        classTensor = allocateFloats(slots * maxDetections);
+        scoreTensor = allocateFloats(slots * maxDetections);
+        boxView = boxTensor.asFloatBuffer();
+        classView = classTensor.asFloatBuffer();
+        scoreView = scoreTensor.asFloatBuffer();
+
+        tensorsBySize = new ArrayList<>(slots);
+        for (int n = 1; n <= slots; n++) {
+            Map<Integer, Object> tensors = new TreeMap<>();
+            tensors.put(0, TileBatch.view(boxTensor, n * maxDetections * 4 * 4));
+            tensors.put(1, TileBatch.view(classTensor, n * maxDetections * 4));
+            tensors.put(2, TileBatch.view(scoreTensor, n * maxDetections * 4));
+            tensorsBySize.add(tensors);
+        }
+    }
+
+    private static ByteBuffer allocateFloats(int count) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(count * 4);
+        buffer.order(ByteOrder.nativeOrder());
+        return buffer;
+    }
+
+    // Interpreter outputs for a run on the first n slots
+    Map<Integer, Object> tensors(int n) {
+        Map<Integer, Object> tensors = tensorsBySize.get(n - 1);
+        for (Object tensor : tensors.values()) {
+            ((ByteBuffer) tensor).rewind();
+        }
+        return tensors;
+    }
+
+    // Zeroes the scores of the first n slots, for engines that report fewer than maxDetections rows
+    void clearScores(int n) {
+        for (int i = 0; i < n * maxDetections; i++) {
+            scoreView.put(i, 0f);
+        }
+    }
+
+    // Writes detection i of a slot; the box is normalized [top, left, bottom, right]
+    void put(int slot, int i, float classId, float score, float top, float left, float bottom, float right) {
+        int d = slot * maxDetections + i;
+        classView.put(d, classId);
+        scoreView.put(d, score);
+        boxView.put(d * 4, top);
+        boxView.put(d * 4 + 1, left);
+        boxView.put(d * 4 + 2, bottom);
+        boxView.put(d * 4 + 3, right);
+    }
+
+    // Copies the outputs of one slot into the raw arrays of the batch
+    public void demultiplex(int slot, DetectionBatch detections) {
+        int d = slot * maxDetections;
+        boxView.position(d * 4);
+        boxView.get(detections.rawBoxes, 0, maxDetections * 4);
+        classView.position(d);
+        classView.get(detections.rawClasses, 0, maxDetections);
+        scoreView.position(d);
+        scoreView.get(detections.rawScores, 0, maxDetections);
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+}
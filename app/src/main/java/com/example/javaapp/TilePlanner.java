@@ -0,0 +1,60 @@
+package com.example.javaapp;
+
+import java.util.List;
+
+// Turns regions of interest into pixel crop rectangles for a given frame size
+public final class TilePlanner {
+
+    private TilePlanner() {
+    }
+
+    // Returns the crops as consecutive [x, y, width, height] quadruples in frame pixels
+    public static int[] plan(List<RegionOfInterest> regions, int frameWidth, int frameHeight, int tileSize) {
+        int count = 0;
+        for (RegionOfInterest roi : regions) {
+            count += tilesAlong(roiLength(roi.left, roi.right, frameWidth), tileSize, roi)
+                    * tilesAlong(roiLength(roi.top, roi.bottom, frameHeight), tileSize, roi);
+        }
+
+        int[] crops = new int[count * 4];
+        int c = 0;
+        for (RegionOfInterest roi : regions) {
+            int x0 = Math.round(roi.left * frameWidth);
+            int y0 = Math.round(roi.top * frameHeight);
+            int width = roiLength(roi.left, roi.right, frameWidth);
+            int height = roiLength(roi.top, roi.bottom, frameHeight);
+            int tileWidth = roi.tiled ? Math.min(tileSize, width) : width;
+            int tileHeight = roi.tiled ? Math.min(tileSize, height) : height;
+            int columns = tilesAlong(width, tileSize, roi);
+            int rows = tilesAlong(height, tileSize, roi);
+
+            for (int r = 0; r < rows; r++) {
+                for (int col = 0; col < columns; col++) {
+                    crops[c++] = x0 + offset(col, columns, width - tileWidth);
+                    crops[c++] = y0 + offset(r, rows, height - tileHeight);
+                    crops[c++] = tileWidth;
+                    crops[c++] = tileHeight;
+                }
+            }
+        }
+        return crops;
+    }
+
+    private static int roiLength(float start, float end, int frameLength) {
+        return Math.max(1, Math.round(end * frameLength) - Math.round(start * frameLength));
+    }
+
+    // Number of tiles needed so that neighbours overlap by at least roi.overlap of a tile
+    private static int tilesAlong(int length, int tileSize, RegionOfInterest roi) {
+        if (!roi.tiled || length <= tileSize) {
+            return 1;
+        }
+        double step = tileSize * (1 - roi.overlap);
+        return (int) Math.ceil((length - tileSize) / step) + 1;
+    }
+
+    // Spreads the tiles evenly so the first starts at 0 and the last ends at the region's edge
+    private static int offset(int index, int tiles, int slack) {
+        return tiles == 1 ? 0 : Math.round((float) index * slack / (tiles - 1));
+    }
+}
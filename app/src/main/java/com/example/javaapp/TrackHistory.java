@@ -0,0 +1,83 @@
+package com.example.javaapp;
+
+// Fixed-capacity ring buffer of timestamped bounding boxes for one track: a single ring of
+// HistoryRings, so an append is O(1) and never allocates. Entries are addressed by age: 0 is the
+// newest, size() - 1 the oldest. The horizontal velocity and mean width are read in O(1).
+public class TrackHistory {
+
+    private final HistoryRings ring;
+
+    public TrackHistory(int capacity) {
+        ring = new HistoryRings(1, capacity);
+    }
+
+    // Appends an entry, overwriting the oldest one when full
+    public void add(long time, float left, float top, float right, float bottom) {
+        ring.append(0, time, left, top, right, bottom, Float.NaN, Float.NaN);
+    }
+
+    public void clear() {
+        ring.clear(0);
+    }
+
+    public int size() {
+        return ring.size(0);
+    }
+
+    public int capacity() {
+        return ring.capacity();
+    }
+
+    // Least-squares velocity of the box center along x over the window, px per time unit
+    public double slopeX() {
+        return ring.slopeX(0);
+    }
+
+    public double slopeStandardErrorX() {
+        return ring.slopeStandardErrorX(0);
+    }
+
+    public double confidenceX() {
+        return ring.confidenceX(0);
+    }
+
+    public double meanWidth() {
+        return ring.meanWidth(0);
+    }
+
+    public long time(int age) {
+        return ring.time(0, age);
+    }
+
+    public float left(int age) {
+        return ring.left(0, age);
+    }
+
+    public float top(int age) {
+        return ring.top(0, age);
+    }
+
+    public float right(int age) {
+        return ring.right(0, age);
+    }
+
+    public float bottom(int age) {
+        return ring.bottom(0, age);
+    }
+
+    public float width(int age) {
+        return ring.width(0, age);
+    }
+
+    public float height(int age) {
+        return ring.height(0, age);
+    }
+
+    public float centerX(int age) {
+        return ring.centerX(0, age);
+    }
+
+    public float centerY(int age) {
+        return ring.centerY(0, age);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.javaapp;
+
+// Lifecycle of a track with time-based thresholds, so behaviour does not depend on the processing rate.
+// A new track is TENTATIVE until it has been matched often enough over a long enough time, then
+// CONFIRMED. A confirmed track that misses a frame is COASTING on its prediction and returns to
+// CONFIRMED on the next match. Tentative tracks that miss for too long, e.g. single-frame false
+// positives, and coasting tracks unseen for too long are DELETED.
+// Times are in the clock of the track timestamps; the detector uses capture timestamps in ns.
+public class TrackLifecycle {
+
+    public static final byte TENTATIVE = 0;
+    public static final byte CONFIRMED = 1;
+    public static final byte COASTING = 2;
+    public static final byte DELETED = 3;
+
+    private final int confirmHits;
+    private final long confirmTime;
+    private final long tentativeTimeout;
+    private final long coastTimeout;
+
+    // confirmHits matches spanning at least confirmTime confirm a track; tentative tracks unseen for
+    // tentativeTimeout and confirmed ones unseen for coastTimeout are deleted
+    public TrackLifecycle(int confirmHits, long confirmTime, long tentativeTimeout, long coastTimeout) {
+        if (confirmHits < 1 || confirmTime < 0 || tentativeTimeout < 0 || coastTimeout < 0) {
+            throw new IllegalArgumentException("Invalid track lifecycle thresholds");
+        }
+        this.confirmHits = confirmHits;
+        this.confirmTime = confirmTime;
+        this.tentativeTimeout = tentativeTimeout;
+        this.coastTimeout = coastTimeout;
+    }
+
+    // Next state of a track matched in this frame, given its total matches and time since creation
+    public byte onHit(byte state, int hits, long age) {
+        switch (state) {
+            case TENTATIVE:
+                return hits >= confirmHits && age >= confirmTime ? CONFIRMED : TENTATIVE;
+            case COASTING:
+                return CONFIRMED;
+            default:
+                return state;
+        }
+    }
+
+    // Next state of a track not matched in this frame, given the time since its last match
+    public byte onMiss(byte state, long unseen) {
+        switch (state) {
+            case TENTATIVE:
+                return unseen > tentativeTimeout ? DELETED : TENTATIVE;
+            case CONFIRMED:
+            case COASTING:
+                return unseen > coastTimeout ? DELETED : COASTING;
+            default:
+                return state;
+        }
+    }
+
+    // Whether the track is established enough to be reported, speed-estimated and uploaded
+    public static boolean isConfirmed(byte state) {
+        return state == CONFIRMED || state == COASTING;
+    }
+
+    public static String name(byte state) {
+        switch (state) {
+            case TENTATIVE:
+                return "tentative";
+            case CONFIRMED:
+                return "confirmed";
+            case COASTING:
+                return "coasting";
+            default:
+                return "deleted";
+        }
+    }
+}
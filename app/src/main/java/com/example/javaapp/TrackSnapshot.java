@@ -0,0 +1,112 @@
+package com.example.javaapp;
+
+// Frozen copy of the confirmed tracks after one tracker update, published by the detector thread
+// through a single volatile reference swap. Renderers, uploaders and stats collectors on other threads
+// read whichever snapshot is current without locking; the detector fills the arrays before publishing
+// and never touches them afterwards.
+// Coordinates are in the rotated frame the model sees.
+public class TrackSnapshot {
+
+    static final TrackSnapshot EMPTY = new TrackSnapshot(0, 0, 0, 0, 0, 0, 0, 0);
+
+    final long sequence; // Number of the frame the tracker was last updated with
+    final long timestampNanos; // Capture time of that frame
+
+    // Confirmed tracks
+    final int count;
+    final int[] ids;
+    final int[] classIds;
+    final double[] x;
+    final double[] y;
+    final float[] left;
+    final float[] top;
+    final float[] right;
+    final float[] bottom;
+    final double[] speeds; // km/h
+    final float[] speedConfidence; // 0..1, from the residuals of the speed fit
+
+    // Tracker counters at the time of the update
+    final int activeTracks; // Including tentative and coasting ones
+    final long framesTracked;
+    final long earlyRedetections;
+    final long reidentified;
+    final long violations; // Speed violations reported
+
+    TrackSnapshot(long sequence, long timestampNanos, int count, int activeTracks,
+                  long framesTracked, long earlyRedetections, long reidentified, long violations) {
+        this.sequence = sequence;
+        this.timestampNanos = timestampNanos;
+        this.count = count;
+        ids = new int[count];
+        classIds = new int[count];
+        x = new double[count];
+        y = new double[count];
+        left = new float[count];
+        top = new float[count];
+        right = new float[count];
+        bottom = new float[count];
+        speeds = new double[count];
+        speedConfidence = new float[count];
+        this.activeTracks = activeTracks;
+        this.framesTracked = framesTracked;
+        this.earlyRedetections = earlyRedetections;
+        this.reidentified = reidentified;
+        this.violations = violations;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getId(int i) {
+        return ids[i];
+    }
+
+    public int getClassId(int i) {
+        return classIds[i];
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    public double getSpeed(int i) {
+        return speeds[i];
+    }
+
+    public float getSpeedConfidence(int i) {
+        return speedConfidence[i];
+    }
+
+    public int getActiveTracks() {
+        return activeTracks;
+    }
+
+    public long getFramesTracked() {
+        return framesTracked;
+    }
+
+    public long getEarlyRedetections() {
+        return earlyRedetections;
+    }
+
+    public long getReidentified() {
+        return reidentified;
+    }
+
+    public long getViolations() {
+        return violations;
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.javaapp;
+
+import java.util.Arrays;
+
+// All active vehicle tracks, stored struct-of-arrays style in parallel primitive arrays indexed by slot.
+// Freed slots go on a free list and are reused by the next new track, and the active slots are kept
+// densely in activeSlots so per-frame scans touch contiguous memory. Every track owns a ring of
+// historyCapacity timestamped boxes in the shared HistoryRings, one ring per slot, and a
+// ConstantVelocityFilter state at a fixed offset of the shared state array. Nothing is allocated
+// per frame; the arrays only grow when more tracks are alive at once than ever before.
+// Optionally every track also records its whole centroid path, simplified online into the point
+// budget of a TrajectorySimplifier at a fixed offset of the shared trajectory arrays.
+public class TrackTable {
+
+    private final int historyCapacity;
+    private final int appearanceSize;
+    private final ConstantVelocityFilter motion;
+    private final TrajectorySimplifier trajectories; // null if no trajectories are recorded
+    private final int trajectoryBudget;
+    private GroundPlane groundPlane; // null until the road is calibrated
+    private GroundLookupTable groundLookup; // Precomputed projections of groundPlane, or null to project exactly
+    private final double[] groundPoint = new double[2];
+
+    // Notified about tracks the lifecycle deletes, before their slot is freed
+    public interface DeletionListener {
+        void onDeleted(int slot, boolean wasConfirmed);
+    }
+
+    private int capacity;
+
+    // Per-slot track data
+    int[] id;
+    double[] centroidX;
+    double[] centroidY;
+    float[] left; // Newest box
+    float[] top;
+    float[] right;
+    float[] bottom;
+    boolean[] updated; // Matched to a detection in the current frame
+    byte[] state; // TrackLifecycle state
+    int[] hits; // Detections matched over the track's lifetime
+    int[] vehicleClass; // Model class of the latest matched detection, -1 until one is set
+    long[] firstSeenTime; // Creation time, in the clock passed to create/observe
+    long[] lastSeenTime;
+    double[] motionState; // ConstantVelocityFilter.STATE_SIZE values per slot
+    float[] appearance; // appearanceSize descriptor values per slot
+    boolean[] hasAppearance;
+
+    // Box history of each slot, with the road position of each entry's bottom-center in meters
+    final HistoryRings history;
+
+    // Trajectories: slot s owns points [s * trajectoryBudget, (s + 1) * trajectoryBudget), oldest first
+    long[] trajectoryTime;
+    float[] trajectoryX;
+    float[] trajectoryY;
+    int[] trajectorySize;
+    float[] trajectoryState; // TrajectorySimplifier.STATE_SIZE values per slot
+
+    // Slot bookkeeping
+    private int[] freeSlots;
+    private int freeCount = 0;
+    private int[] activeSlots;
+    private int[] activeIndex; // Position of a slot in activeSlots, -1 when free
+    private int activeCount = 0;
+
+    public TrackTable(int initialCapacity, int historyCapacity, ConstantVelocityFilter motion) {
+        this(initialCapacity, historyCapacity, 0, motion);
+    }
+
+    // appearanceSize is the length of the per-track appearance descriptor, 0 if none is kept
+    public TrackTable(int initialCapacity, int historyCapacity, int appearanceSize, ConstantVelocityFilter motion) {
+        this(initialCapacity, historyCapacity, appearanceSize, null, motion);
+    }
+
+    // Same, recording every track's trajectory with the simplifier unless it is null
+    public TrackTable(int initialCapacity, int historyCapacity, int appearanceSize, TrajectorySimplifier trajectories,
+                      ConstantVelocityFilter motion) {
+        if (initialCapacity < 1 || historyCapacity < 1 || appearanceSize < 0) {
+            throw new IllegalArgumentException("Invalid track table size " + initialCapacity + "x" + historyCapacity);
+        }
+        this.historyCapacity = historyCapacity;
+        history = new HistoryRings(0, historyCapacity);
+        this.appearanceSize = appearanceSize;
+        this.motion = motion;
+        this.trajectories = trajectories;
+        trajectoryBudget = trajectories != null ? trajectories.getBudget() : 0;
+        resize(initialCapacity);
+    }
+
+    private void resize(int newCapacity) {
+        int oldCapacity = capacity;
+        id = grow(id, newCapacity);
+        centroidX = grow(centroidX, newCapacity);
+        centroidY = grow(centroidY, newCapacity);
+        left = grow(left, newCapacity);
+        top = grow(top, newCapacity);
+        right = grow(right, newCapacity);
+        bottom = grow(bottom, newCapacity);
+        updated = grow(updated, newCapacity);
+        state = grow(state, newCapacity);
+        hits = grow(hits, newCapacity);
+        vehicleClass = grow(vehicleClass, newCapacity);
+        firstSeenTime = grow(firstSeenTime, newCapacity);
+        lastSeenTime = grow(lastSeenTime, newCapacity);
+        motionState = grow(motionState, newCapacity * ConstantVelocityFilter.STATE_SIZE);
+        appearance = grow(appearance, newCapacity * appearanceSize);
+        hasAppearance = grow(hasAppearance, newCapacity);
+        history.resize(newCapacity);
+        trajectoryTime = grow(trajectoryTime, newCapacity * trajectoryBudget);
+        trajectoryX = grow(trajectoryX, newCapacity * trajectoryBudget);
+        trajectoryY = grow(trajectoryY, newCapacity * trajectoryBudget);
+        trajectorySize = grow(trajectorySize, newCapacity);
+        trajectoryState = grow(trajectoryState, newCapacity * TrajectorySimplifier.STATE_SIZE);
+        activeSlots = grow(activeSlots, newCapacity);
+        activeIndex = grow(activeIndex, newCapacity);
+        freeSlots = grow(freeSlots, newCapacity);
+
+        // New slots are free; push them so the lowest slot is handed out first
+        for (int slot = newCapacity - 1; slot >= oldCapacity; slot--) {
+            activeIndex[slot] = -1;
+            freeSlots[freeCount++] = slot;
+        }
+        capacity = newCapacity;
+    }
+
+    private static int[] grow(int[] a, int n) {
+        return a == null ? new int[n] : Arrays.copyOf(a, n);
+    }
+
+    private static long[] grow(long[] a, int n) {
+        return a == null ? new long[n] : Arrays.copyOf(a, n);
+    }
+
+    private static float[] grow(float[] a, int n) {
+        return a == null ? new float[n] : Arrays.copyOf(a, n);
+    }
+
+    private static double[] grow(double[] a, int n) {
+        return a == null ? new double[n] : Arrays.copyOf(a, n);
+    }
+
+    private static byte[] grow(byte[] a, int n) {
+        return a == null ? new byte[n] : Arrays.copyOf(a, n);
+    }
+
+    private static boolean[] grow(boolean[] a, int n) {
+        return a == null ? new boolean[n] : Arrays.copyOf(a, n);
+    }
+
+    // Starts a new frame: clears the per-frame match flags
+    public void beginFrame() {
+        for (int k = 0; k < activeCount; k++) {
+            updated[activeSlots[k]] = false;
+        }
+    }
+
+    // Creates a tentative track at the given centroid and time and returns its slot
+    public int create(int trackId, double x, double y, long time) {
+        if (freeCount == 0) {
+            resize(capacity * 2);
+        }
+        int slot = freeSlots[--freeCount];
+        activeIndex[slot] = activeCount;
+        activeSlots[activeCount++] = slot;
+
+        id[slot] = trackId;
+        centroidX[slot] = x;
+        centroidY[slot] = y;
+        updated[slot] = false;
+        state[slot] = TrackLifecycle.TENTATIVE;
+        hits[slot] = 0;
+        vehicleClass[slot] = -1;
+        firstSeenTime[slot] = time;
+        lastSeenTime[slot] = time;
+        history.clear(slot);
+        trajectorySize[slot] = 0;
+        hasAppearance[slot] = false;
+        motion.reset(motionState, slot * ConstantVelocityFilter.STATE_SIZE, x, y);
+        return slot;
+    }
+
+    // Frees a slot. The last active slot takes its place in the active list, so the active
+    // order changes; callers iterating activeSlot(k) should walk backwards while removing.
+    public void remove(int slot) {
+        int k = activeIndex[slot];
+        if (k < 0) {
+            throw new IllegalArgumentException("Slot " + slot + " is not active");
+        }
+        int last = activeSlots[--activeCount];
+        activeSlots[k] = last;
+        activeIndex[last] = k;
+        activeIndex[slot] = -1;
+        freeSlots[freeCount++] = slot;
+    }
+
+    // Records a matched detection for the slot
+    public void observe(int slot, long time, double x, double y, float l, float t, float r, float b) {
+        centroidX[slot] = x;
+        centroidY[slot] = y;
+        left[slot] = l;
+        top[slot] = t;
+        right[slot] = r;
+        bottom[slot] = b;
+        lastSeenTime[slot] = time;
+        updated[slot] = true;
+        hits[slot]++;
+        appendHistory(slot, time, l, t, r, b);
+        if (trajectories != null) {
+            trajectorySize[slot] = trajectories.append(trajectoryTime, trajectoryX, trajectoryY, slot * trajectoryBudget,
+                    trajectorySize[slot], trajectoryState, slot * TrajectorySimplifier.STATE_SIZE, time, (float) x, (float) y);
+        }
+    }
+
+    public void setVehicleClass(int slot, int classId) {
+        vehicleClass[slot] = classId;
+    }
+
+    // Appends the box to the slot's history with the road position of its bottom-center
+    private void appendHistory(int slot, long time, float l, float t, float r, float b) {
+        if (project((l + r) / 2, b)) {
+            history.append(slot, time, l, t, r, b, (float) groundPoint[0], (float) groundPoint[1]);
+        } else {
+            history.append(slot, time, l, t, r, b, Float.NaN, Float.NaN);
+        }
+    }
+
+    // Places a frame point on the road, into groundPoint; false without a calibration or beyond the horizon
+    private boolean project(float x, float y) {
+        return groundPlane != null && (groundLookup != null
+                ? groundLookup.project(x, y, groundPoint) : groundPlane.project(x, y, groundPoint));
+    }
+
+    // Switches to a new road calibration, or none for null, re-projecting the history of every active
+    // track so its ground speed is available at once
+    public void setGroundPlane(GroundPlane plane) {
+        setGroundPlane(plane, null);
+    }
+
+    // Same, projecting through a lookup table built from the plane unless it is null
+    public void setGroundPlane(GroundPlane plane, GroundLookupTable lookup) {
+        if (lookup != null && lookup.getPlane() != plane) {
+            throw new IllegalArgumentException("Lookup table was built for another ground plane");
+        }
+        groundPlane = plane;
+        groundLookup = lookup;
+        for (int k = 0; k < activeCount; k++) {
+            int slot = activeSlots[k];
+            for (int age = 0; age < history.size(slot); age++) {
+                if (project(history.centerX(slot, age), history.bottom(slot, age))) {
+                    history.setGround(slot, age, (float) groundPoint[0], (float) groundPoint[1]);
+                } else {
+                    history.setGround(slot, age, Float.NaN, Float.NaN);
+                }
+            }
+        }
+    }
+
+    public GroundPlane getGroundPlane() {
+        return groundPlane;
+    }
+
+    public GroundLookupTable getGroundLookup() {
+        return groundLookup;
+    }
+
+    // Gives a freshly created track the id, confirmed state and box history of a re-identified track.
+    // The history arrays hold count entries, oldest first.
+    public void reinstate(int slot, int trackId, long[] times, float[] boxes, int count) {
+        id[slot] = trackId;
+        state[slot] = TrackLifecycle.CONFIRMED;
+        history.clear(slot);
+        for (int i = Math.max(0, count - historyCapacity); i < count; i++) {
+            appendHistory(slot, times[i], boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3]);
+        }
+    }
+
+    // Gives a re-identified track the trajectory it had before it was lost, count points oldest first,
+    // so its path continues instead of starting over. The points go through the simplifier again.
+    public void reinstateTrajectory(int slot, long[] times, float[] xs, float[] ys, int count) {
+        if (trajectories == null) {
+            return;
+        }
+        trajectorySize[slot] = 0;
+        for (int i = 0; i < count; i++) {
+            trajectorySize[slot] = trajectories.append(trajectoryTime, trajectoryX, trajectoryY, slot * trajectoryBudget,
+                    trajectorySize[slot], trajectoryState, slot * TrajectorySimplifier.STATE_SIZE, times[i], xs[i], ys[i]);
+        }
+    }
+
+    // Copies the slot's history, oldest first, into the arrays and returns the number of entries
+    public int exportHistory(int slot, long[] times, float[] boxes) {
+        return history.export(slot, times, boxes);
+    }
+
+    // Copies the slot's simplified trajectory, oldest first, into arrays of at least getTrajectoryBudget()
+    // points and returns the number of points
+    public int exportTrajectory(int slot, long[] times, float[] xs, float[] ys) {
+        if (trajectories == null) {
+            return 0;
+        }
+        return trajectories.export(trajectoryTime, trajectoryX, trajectoryY, slot * trajectoryBudget, trajectorySize[slot],
+                trajectoryState, slot * TrajectorySimplifier.STATE_SIZE, times, xs, ys);
+    }
+
+    // Blends a new appearance descriptor into the slot's running descriptor; weight is that of the new one
+    public void updateAppearance(int slot, float[] descriptor, int offset, float weight) {
+        int o = slot * appearanceSize;
+        if (!hasAppearance[slot]) {
+            System.arraycopy(descriptor, offset, appearance, o, appearanceSize);
+            hasAppearance[slot] = true;
+            return;
+        }
+        for (int i = 0; i < appearanceSize; i++) {
+            appearance[o + i] += weight * (descriptor[offset + i] - appearance[o + i]);
+        }
+    }
+
+    // Predicts every active track forward by dt seconds
+    public void predictAll(double dt) {
+        for (int k = 0; k < activeCount; k++) {
+            motion.predict(motionState, activeSlots[k] * ConstantVelocityFilter.STATE_SIZE, dt);
+        }
+    }
+
+    // Corrects the motion state of the slot with a measured centroid
+    public void correct(int slot, double x, double y) {
+        motion.update(motionState, slot * ConstantVelocityFilter.STATE_SIZE, x, y);
+    }
+
+    public double mahalanobisSq(int slot, double x, double y) {
+        return motion.mahalanobisSq(motionState, slot * ConstantVelocityFilter.STATE_SIZE, x, y);
+    }
+
+    public double predictedX(int slot) {
+        return ConstantVelocityFilter.getX(motionState, slot * ConstantVelocityFilter.STATE_SIZE);
+    }
+
+    public double predictedY(int slot) {
+        return ConstantVelocityFilter.getY(motionState, slot * ConstantVelocityFilter.STATE_SIZE);
+    }
+
+    // Applies one frame of the lifecycle to every active track and removes the deleted ones.
+    // Returns the number of confirmed (including coasting) tracks left.
+    public int advanceLifecycle(TrackLifecycle lifecycle, long now) {
+        return advanceLifecycle(lifecycle, now, null);
+    }
+
+    public int advanceLifecycle(TrackLifecycle lifecycle, long now, DeletionListener listener) {
+        int confirmed = 0;
+        // Walk backwards as removal moves the last active slot into the freed position
+        for (int k = activeCount - 1; k >= 0; k--) {
+            int slot = activeSlots[k];
+            byte previous = state[slot];
+            byte next = updated[slot]
+                    ? lifecycle.onHit(previous, hits[slot], now - firstSeenTime[slot])
+                    : lifecycle.onMiss(previous, now - lastSeenTime[slot]);
+            state[slot] = next;
+            if (next == TrackLifecycle.DELETED) {
+                if (listener != null) {
+                    listener.onDeleted(slot, TrackLifecycle.isConfirmed(previous));
+                }
+                remove(slot);
+            } else if (TrackLifecycle.isConfirmed(next)) {
+                confirmed++;
+            }
+        }
+        return confirmed;
+    }
+
+    // Ends every active track, notifying the listener unless it is null, e.g. when the clock restarts
+    public void clear(DeletionListener listener) {
+        for (int k = activeCount - 1; k >= 0; k--) {
+            int slot = activeSlots[k];
+            if (listener != null) {
+                listener.onDeleted(slot, TrackLifecycle.isConfirmed(state[slot]));
+            }
+            remove(slot);
+        }
+    }
+
+    public boolean isConfirmed(int slot) {
+        return TrackLifecycle.isConfirmed(state[slot]);
+    }
+
+    // Least-squares velocity of the box center along x over the history window, px per time unit
+    public double historySlopeX(int slot) {
+        return history.slopeX(slot);
+    }
+
+    public double historySlopeErrorX(int slot) {
+        return history.slopeStandardErrorX(slot);
+    }
+
+    public double historyConfidenceX(int slot) {
+        return history.confidenceX(slot);
+    }
+
+    // Number of history entries with a road position
+    public int groundSampleCount(int slot) {
+        return history.groundCount(slot);
+    }
+
+    // Least-squares speed over the road across the history window, meters per time unit
+    public double groundSpeed(int slot) {
+        return history.groundSpeed(slot);
+    }
+
+    // Confidence in groundSpeed in [0, 1]
+    public double groundSpeedConfidence(int slot) {
+        return history.groundSpeedConfidence(slot);
+    }
+
+    public double historyMeanWidth(int slot) {
+        return history.meanWidth(slot);
+    }
+
+    public int historySize(int slot) {
+        return history.size(slot);
+    }
+
+    public long historyTime(int slot, int age) {
+        return history.time(slot, age);
+    }
+
+    public float historyWidth(int slot, int age) {
+        return history.width(slot, age);
+    }
+
+    public float historyCenterX(int slot, int age) {
+        return history.centerX(slot, age);
+    }
+
+    public float historyCenterY(int slot, int age) {
+        return history.centerY(slot, age);
+    }
+
+    public int activeCount() {
+        return activeCount;
+    }
+
+    // Slot of the k-th active track
+    public int activeSlot(int k) {
+        return activeSlots[k];
+    }
+
+    public boolean isActive(int slot) {
+        return slot >= 0 && slot < capacity && activeIndex[slot] >= 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int getAppearanceSize() {
+        return appearanceSize;
+    }
+
+    public int getHistoryCapacity() {
+        return historyCapacity;
+    }
+
+    public int getTrajectoryBudget() {
+        return trajectoryBudget;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.javaapp;
+
+import java.util.Arrays;
+
+// Immutable simplified path of one ended track: centroids in rotated-frame pixels with the capture
+// timestamps of their frames in ns, oldest first.
+public class Trajectory {
+
+    // Receives the trajectory of every confirmed track when it ends, on the detector thread
+    public interface Listener {
+        void onTrajectory(Trajectory trajectory);
+    }
+
+    final int trackId;
+    final int classId;
+    final long[] times;
+    final float[] x;
+    final float[] y;
+
+    Trajectory(int trackId, int classId, long[] times, float[] x, float[] y, int count) {
+        this.trackId = trackId;
+        this.classId = classId;
+        this.times = Arrays.copyOf(times, count);
+        this.x = Arrays.copyOf(x, count);
+        this.y = Arrays.copyOf(y, count);
+    }
+
+    public int getTrackId() {
+        return trackId;
+    }
+
+    public int getClassId() {
+        return classId;
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    public long getTime(int i) {
+        return times[i];
+    }
+
+    public float getX(int i) {
+        return x[i];
+    }
+
+    public float getY(int i) {
+        return y[i];
+    }
+
+    // Time from the first to the last point, ns
+    public long getDuration() {
+        return times.length > 0 ? times[times.length - 1] - times[0] : 0;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.javaapp;
+
+// Online simplification of timestamped point sequences kept in caller-owned primitive arrays, so a
+// track can record its whole path in a fixed point budget.
+// Errors are synchronized Euclidean distances: how far a point is from where the path interpolated in
+// time puts the vehicle at that point's time, so stops and speed changes are kept, not just turns.
+// New points first go through tolerance-based dropping: the previous newest point is replaced when it
+// lies within the tolerance of the path from its predecessor to the new point. The error of points
+// dropped this way is carried along, so a slow curve cannot creep away from the recorded line one
+// small step at a time. A point that cannot be dropped that way but lies within half the tolerance of
+// the newest point starts a stop: further points near it are not stored, only how long the vehicle
+// stays is, and the end of the stop becomes a point when it moves on. A parked vehicle thus adds at
+// most one point however long it jitters. When the budget is full
+// anyway, Douglas-Peucker is run over the stored points with a growing tolerance until a quarter of
+// the budget is free again.
+public class TrajectorySimplifier {
+
+    // Per-sequence state, STATE_SIZE floats
+    public static final int STATE_SIZE = 4;
+    private static final int TOLERANCE = 0; // Current tolerance, px
+    private static final int ERROR = 1; // Error carried by the newest point for the points it replaced, px
+    private static final int DWELL = 2; // How long the vehicle has stayed at the newest point, in the time unit of the sequence
+    private static final int JITTER = 3; // Largest distance from the newest point during that stay, px
+
+    private final int budget;
+    private final float initialTolerance;
+
+    // Douglas-Peucker scratch, sized to the budget
+    private final int[] stack;
+    private final boolean[] keep;
+
+    // Sequences hold fewer than budget points and start out simplified to within initialTolerance pixels
+    public TrajectorySimplifier(int budget, float initialTolerance) {
+        if (budget < 4 || !(initialTolerance > 0)) {
+            throw new IllegalArgumentException("Invalid trajectory budget " + budget + " or tolerance " + initialTolerance);
+        }
+        this.budget = budget;
+        this.initialTolerance = initialTolerance;
+        stack = new int[budget * 2];
+        keep = new boolean[budget];
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public float getInitialTolerance() {
+        return initialTolerance;
+    }
+
+    // Appends a point to the sequence of count points at offset o, with its state at so, and returns
+    // the new count
+    public int append(long[] times, float[] xs, float[] ys, int o, int count, float[] state, int so,
+                      long time, float x, float y) {
+        if (count == 0) {
+            state[so + TOLERANCE] = initialTolerance;
+            state[so + ERROR] = 0;
+            state[so + DWELL] = 0;
+            state[so + JITTER] = 0;
+            return push(times, xs, ys, o, 0, state, so, time, x, y);
+        }
+        int b = o + count - 1;
+        float stopX = xs[b];
+        float stopY = ys[b];
+        float moved = distance(x, y, stopX, stopY);
+        boolean near = moved <= state[so + TOLERANCE] / 2;
+        if (state[so + DWELL] == 0) {
+            if (near && dropError(times, xs, ys, o, count, state, so, time, x, y) > state[so + TOLERANCE]) {
+                // Start a stop at the newest point
+                state[so + DWELL] = Math.max(1, time - times[b]);
+                state[so + JITTER] = moved;
+                return count;
+            }
+            return push(times, xs, ys, o, count, state, so, time, x, y);
+        }
+        if (near) {
+            // Still stopped
+            state[so + DWELL] = Math.max(1, time - times[b]);
+            state[so + JITTER] = Math.max(state[so + JITTER], moved);
+            return count;
+        }
+        // Leaving the stop: its end is a point of its own at the stop's position
+        long end = times[b] + (long) state[so + DWELL];
+        float jitter = state[so + JITTER];
+        count = push(times, xs, ys, o, count, state, so, end, stopX, stopY);
+        state[so + ERROR] += jitter;
+        state[so + DWELL] = 0;
+        state[so + JITTER] = 0;
+        return push(times, xs, ys, o, count, state, so, time, x, y);
+    }
+
+    // Copies the sequence, oldest first, into the arrays together with the end of a stop still in
+    // progress, and returns the number of points copied (at most budget)
+    public int export(long[] times, float[] xs, float[] ys, int o, int count, float[] state, int so,
+                      long[] outTimes, float[] outXs, float[] outYs) {
+        System.arraycopy(times, o, outTimes, 0, count);
+        System.arraycopy(xs, o, outXs, 0, count);
+        System.arraycopy(ys, o, outYs, 0, count);
+        if (count > 0 && state[so + DWELL] > 0) {
+            outTimes[count] = times[o + count - 1] + (long) state[so + DWELL];
+            outXs[count] = xs[o + count - 1];
+            outYs[count] = ys[o + count - 1];
+            count++;
+        }
+        return count;
+    }
+
+    // Stores a point after dropping the newest one if the new point makes it redundant, compacting
+    // the sequence when the budget is reached
+    private int push(long[] times, float[] xs, float[] ys, int o, int count, float[] state, int so,
+                     long time, float x, float y) {
+        if (count >= 2) {
+            float error = dropError(times, xs, ys, o, count, state, so, time, x, y);
+            if (error <= state[so + TOLERANCE]) {
+                // The newest point is redundant; the new point takes its place
+                count--;
+                state[so + ERROR] = error;
+            } else {
+                state[so + ERROR] = 0;
+            }
+        }
+        times[o + count] = time;
+        xs[o + count] = x;
+        ys[o + count] = y;
+        count++;
+
+        if (count == budget) {
+            do {
+                state[so + TOLERANCE] *= 2;
+                count = simplify(times, xs, ys, o, count, state[so + TOLERANCE]);
+            } while (count > budget * 3 / 4);
+            state[so + ERROR] = 0;
+        }
+        return count;
+    }
+
+    // Error the path would have if the newest point were replaced by the new one, infinite if it cannot be
+    private static float dropError(long[] times, float[] xs, float[] ys, int o, int count, float[] state, int so,
+                                   long time, float x, float y) {
+        if (count < 2) {
+            return Float.POSITIVE_INFINITY;
+        }
+        int a = o + count - 2;
+        int b = a + 1;
+        return synchronizedDistance(times[b], xs[b], ys[b], times[a], xs[a], ys[a], time, x, y) + state[so + ERROR];
+    }
+
+    // Douglas-Peucker over count points at offset o, compacting the kept ones in place; returns the new count
+    public int simplify(long[] times, float[] xs, float[] ys, int o, int count, float tolerance) {
+        if (count <= 2) {
+            return count;
+        }
+        for (int i = 0; i < count; i++) {
+            keep[i] = false;
+        }
+        keep[0] = true;
+        keep[count - 1] = true;
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            float worst = -1;
+            int worstIndex = -1;
+            for (int i = first + 1; i < last; i++) {
+                float d = synchronizedDistance(times[o + i], xs[o + i], ys[o + i],
+                        times[o + first], xs[o + first], ys[o + first], times[o + last], xs[o + last], ys[o + last]);
+                if (d > worst) {
+                    worst = d;
+                    worstIndex = i;
+                }
+            }
+            if (worst > tolerance) {
+                keep[worstIndex] = true;
+                stack[top++] = first;
+                stack[top++] = worstIndex;
+                stack[top++] = worstIndex;
+                stack[top++] = last;
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                times[o + kept] = times[o + i];
+                xs[o + kept] = xs[o + i];
+                ys[o + kept] = ys[o + i];
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    // Distance of point p at time tp from the position interpolated at tp between a and b
+    static float synchronizedDistance(long tp, float px, float py, long ta, float ax, float ay, long tb, float bx, float by) {
+        float f = tb > ta ? (float) (tp - ta) / (tb - ta) : 0;
+        return distance(ax + f * (bx - ax), ay + f * (by - ay), px, py);
+    }
+
+    static float distance(float ax, float ay, float bx, float by) {
+        float dx = bx - ax;
+        float dy = by - ay;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+}
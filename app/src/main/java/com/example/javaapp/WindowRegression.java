@@ -0,0 +1,88 @@
+package com.example.javaapp;
+
+// Least-squares line x = a + b * t over a sliding window of samples, kept as running sums so adding
+// or removing a sample is O(1) and the slope, its standard error and a confidence are read without
+// revisiting the samples. The sums live at an offset of a caller-owned array, STATE_SIZE doubles per
+// window, like ConstantVelocityFilter states. Callers should pass t relative to a per-window origin
+// so the squared sums keep their precision.
+public class WindowRegression {
+
+    public static final int STATE_SIZE = 6;
+    private static final int N = 0;
+    private static final int ST = 1;
+    private static final int SX = 2;
+    private static final int STT = 3;
+    private static final int STX = 4;
+    private static final int SXX = 5;
+
+    public static void clear(double[] s, int o) {
+        for (int i = 0; i < STATE_SIZE; i++) {
+            s[o + i] = 0;
+        }
+    }
+
+    public static void add(double[] s, int o, double t, double x) {
+        s[o + N]++;
+        s[o + ST] += t;
+        s[o + SX] += x;
+        s[o + STT] += t * t;
+        s[o + STX] += t * x;
+        s[o + SXX] += x * x;
+    }
+
+    // Removes a sample that was added before, e.g. the one a ring buffer is about to overwrite
+    public static void remove(double[] s, int o, double t, double x) {
+        s[o + N]--;
+        s[o + ST] -= t;
+        s[o + SX] -= x;
+        s[o + STT] -= t * t;
+        s[o + STX] -= t * x;
+        s[o + SXX] -= x * x;
+    }
+
+    public static int count(double[] s, int o) {
+        return (int) s[o + N];
+    }
+
+    // Centered sums of squares and cross products
+    private static double ctt(double[] s, int o) {
+        return s[o + STT] - s[o + ST] * s[o + ST] / s[o + N];
+    }
+
+    private static double ctx(double[] s, int o) {
+        return s[o + STX] - s[o + ST] * s[o + SX] / s[o + N];
+    }
+
+    // Slope dx/dt, or 0 with fewer than two samples or no spread in t
+    public static double slope(double[] s, int o) {
+        if (s[o + N] < 2) {
+            return 0;
+        }
+        double ctt = ctt(s, o);
+        return ctt > 0 ? ctx(s, o) / ctt : 0;
+    }
+
+    // Standard error of the slope from the residuals of the fit, or infinity with fewer than three samples
+    public static double slopeStandardError(double[] s, int o) {
+        double n = s[o + N];
+        double ctt = n >= 3 ? ctt(s, o) : 0;
+        if (!(ctt > 0)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double ctx = ctx(s, o);
+        double cxx = s[o + SXX] - s[o + SX] * s[o + SX] / n;
+        double residual = Math.max(0, cxx - ctx * ctx / ctt); // Sum of squared residuals
+        return Math.sqrt(residual / (n - 2) / ctt);
+    }
+
+    // Confidence in the slope in [0, 1]: |slope| / (|slope| + standard error), so 0.5 when the
+    // residuals alone could explain the motion and 1 for samples exactly on a moving line
+    public static double confidence(double[] s, int o) {
+        double se = slopeStandardError(s, o);
+        if (Double.isInfinite(se)) {
+            return 0;
+        }
+        double magnitude = Math.abs(slope(s, o));
+        return magnitude + se > 0 ? magnitude / (magnitude + se) : 0;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.javaapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link BackendSelector}, using fake backends with fixed run times.
+ */
+public class BackendSelectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> created = new ArrayList<>();
+
+    private DetectorBackend.Factory fake(final String name, final long runNanos, final boolean fails) {
+        return new DetectorBackend.Factory() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public DetectorBackend create() throws Exception {
+                if (fails) {
+                    throw new UnsupportedOperationException(name + " unavailable");
+                }
+                created.add(name);
+                return new DetectorBackend() {
+                    @Override
+                    public String getName() {
+                        return name;
+                    }
+
+                    @Override
+                    public void run(FrameContext ctx) {
+                        long end = System.nanoTime() + runNanos;
+                        while (System.nanoTime() < end) {
+                            // Busy wait to simulate inference
+                        }
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        };
+    }
+
+    @Test
+    public void select_picksFastestAndSkipsFailures() throws Exception {
+        BackendSelector selector = new BackendSelector(null);
+        DetectorBackend backend = selector.select("model", Arrays.asList(
+                fake("slow", 2_000_000, false),
+                fake("broken", 0, true),
+                fake("fast", 100_000, false)), new FrameContext(8, 10));
+
+        assertEquals("fast", backend.getName());
+        assertEquals(-1L, (long) selector.getResults().get("broken"));
+        assertFalse(selector.isFromCache());
+    }
+
+    @Test
+    public void select_closesBackendThatFailsBenchmark() throws Exception {
+        final List<String> closed = new ArrayList<>();
+        DetectorBackend.Factory crashing = new DetectorBackend.Factory() {
+            @Override
+            public String getName() {
+                return "crashing";
+            }
+
+            @Override
+            public DetectorBackend create() {
+                return new DetectorBackend() {
+                    @Override
+                    public String getName() {
+                        return "crashing";
+                    }
+
+                    @Override
+                    public void run(FrameContext ctx) {
+                        throw new IllegalStateException("Delegate failed to execute");
+                    }
+
+                    @Override
+                    public void close() {
+                        closed.add("crashing");
+                    }
+                };
+            }
+        };
+
+        DetectorBackend backend = new BackendSelector(null).select("model", Arrays.asList(
+                fake("cpu", 100_000, false), crashing), new FrameContext(8, 10));
+
+        assertEquals("cpu", backend.getName());
+        assertEquals(Arrays.asList("crashing"), closed);
+    }
+
+    @Test
+    public void select_reusesCachedChoiceWithoutBenchmark() throws Exception {
+        File cache = new File(folder.getRoot(), "backend.properties");
+        List<DetectorBackend.Factory> factories = Arrays.asList(
+                fake("slow", 2_000_000, false),
+                fake("fast", 100_000, false));
+        new BackendSelector(cache).select("model", factories, new FrameContext(8, 10));
+        created.clear();
+
+        BackendSelector selector = new BackendSelector(cache);
+        DetectorBackend backend = selector.select("model", factories, new FrameContext(8, 10));
+
+        assertEquals("fast", backend.getName());
+        assertTrue(selector.isFromCache());
+        assertEquals(Arrays.asList("fast"), created);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void select_rethrowsWhenNothingWorks() throws Exception {
+        new BackendSelector(null).select("model", Arrays.asList(fake("broken", 0, true)), new FrameContext(8, 10));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ClassFilter}.
+ */
+public class ClassFilterTest {
+
+    private static final List<String> COCO = Arrays.asList(
+            "person", "bicycle", "car", "motorcycle", "airplane", "bus", "train", "truck", "boat");
+
+    @Test
+    public void forVehicles_acceptsVehicleClassesOfTheLabelMap() {
+        ClassFilter filter = ClassFilter.forVehicles(COCO);
+
+        assertTrue(filter.accepts(2, 0.6f));
+        assertTrue(filter.accepts(3, 0.6f));
+        assertTrue(filter.accepts(5, 0.6f));
+        assertTrue(filter.accepts(7, 0.6f));
+        assertFalse(filter.accepts(0, 0.99f));
+        assertFalse(filter.accepts(6, 0.99f));
+        assertFalse(filter.accepts(2, 0.5f));
+        assertEquals(12f, filter.lengthMeters(5), 0);
+        assertEquals(300f, filter.getMaxGateDistance(), 0);
+    }
+
+    @Test
+    public void forVehicles_followsAnotherLabelMap() {
+        ClassFilter filter = ClassFilter.forVehicles(Arrays.asList("???", "car"));
+
+        assertTrue(filter.accepts(1, 0.6f));
+        assertFalse(filter.accepts(2, 0.6f));
+        assertEquals(4.5f, filter.lengthMeters(1), 0);
+    }
+
+    @Test
+    public void accepts_rejectsClassIdsOutsideTheLabelMap() {
+        ClassFilter filter = ClassFilter.forVehicles(COCO);
+
+        assertFalse(filter.accepts(-1, 1));
+        assertFalse(filter.accepts(COCO.size(), 1));
+    }
+
+    @Test
+    public void accept_overridesParametersPerClass() {
+        ClassFilter filter = ClassFilter.forVehicles(COCO);
+
+        assertEquals(1, filter.accept("Truck", 0.7f, 400, 10));
+        assertEquals(0, filter.accept("tractor", 0.7f, 400, 10));
+
+        assertFalse(filter.accepts(7, 0.6f));
+        assertEquals(400f, filter.gateDistance(7), 0);
+        assertEquals(400f, filter.getMaxGateDistance(), 0);
+    }
+}
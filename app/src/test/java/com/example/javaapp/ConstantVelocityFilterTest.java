@@ -0,0 +1,61 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ConstantVelocityFilter}.
+ */
+public class ConstantVelocityFilterTest {
+
+    private static final double DT = 1 / 15.0;
+
+    @Test
+    public void filter_learnsVelocityOfConstantMotion() {
+        ConstantVelocityFilter filter = new ConstantVelocityFilter(500, 6, 800);
+        filter.reset(100, 200);
+        for (int frame = 1; frame <= 30; frame++) {
+            filter.predict(DT);
+            filter.update(100 + 450 * frame * DT, 200 - 90 * frame * DT);
+        }
+
+        assertEquals(450, filter.getVelocityX(), 5);
+        assertEquals(-90, filter.getVelocityY(), 5);
+
+        // A fast car skipping several processed frames is still predicted close to where it shows up
+        filter.predict(4 * DT);
+        assertEquals(100 + 450 * 34 * DT, filter.getX(), 3);
+        assertEquals(200 - 90 * 34 * DT, filter.getY(), 3);
+    }
+
+    @Test
+    public void gate_widensWhilePredictingWithoutMeasurements() {
+        ConstantVelocityFilter filter = new ConstantVelocityFilter(500, 6, 800);
+        filter.reset(0, 0);
+        filter.predict(DT);
+        filter.update(10, 0);
+        filter.predict(DT);
+        double shortGap = filter.mahalanobisSq(filter.getX() + 50, filter.getY());
+
+        for (int frame = 0; frame < 10; frame++) {
+            filter.predict(DT);
+        }
+        double longGap = filter.mahalanobisSq(filter.getX() + 50, filter.getY());
+
+        assertTrue(filter.getPositionVarianceX() > 36);
+        assertTrue(longGap < shortGap);
+    }
+
+    @Test
+    public void predict_ignoresNonPositiveSteps() {
+        ConstantVelocityFilter filter = new ConstantVelocityFilter(500, 6, 800);
+        filter.reset(5, 5);
+        double variance = filter.getPositionVarianceX();
+
+        filter.predict(0);
+
+        assertEquals(variance, filter.getPositionVarianceX(), 0);
+        assertEquals(5, filter.getX(), 0);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link DetectionBatch} decoding.
+ */
+public class DetectionBatchTest {
+
+    @Test
+    public void addRaw_scalesBoxAndComputesCentroid() {
+        DetectionBatch batch = new DetectionBatch(10);
+        // Normalized [top, left, bottom, right] of raw detection 3
+        batch.rawBoxes[12] = 0.25f;
+        batch.rawBoxes[13] = 0.5f;
+        batch.rawBoxes[14] = 0.75f;
+        batch.rawBoxes[15] = 1.0f;
+        batch.rawScores[3] = 0.9f;
+        batch.rawClasses[3] = 2f;
+
+        assertEquals(0, batch.addRaw(3, 200, 100));
+
+        assertEquals(1, batch.size());
+        assertEquals(100f, batch.left[0], 1e-4);
+        assertEquals(25f, batch.top[0], 1e-4);
+        assertEquals(200f, batch.right[0], 1e-4);
+        assertEquals(75f, batch.bottom[0], 1e-4);
+        assertEquals(150f, batch.centerX[0], 1e-4);
+        assertEquals(50f, batch.centerY[0], 1e-4);
+        assertEquals(2, batch.classId[0]);
+        assertEquals(0.9f, batch.score[0], 1e-6);
+    }
+
+    @Test
+    public void readBoxes_copiesTensorIntoRawBoxes() {
+        DetectionBatch batch = new DetectionBatch(2);
+        for (int i = 0; i < 8; i++) {
+            batch.boxTensor.putFloat(i * 0.1f);
+        }
+
+        batch.readBoxes();
+
+        assertEquals(0.7f, batch.rawBoxes[7], 1e-6);
+        assertEquals(0, batch.boxTensor.position());
+    }
+
+    @Test
+    public void add_rejectsWhenFullAndClearResets() {
+        DetectionBatch batch = new DetectionBatch(1);
+        assertEquals(0, batch.add(0, 0, 10, 10, 1f, 2));
+        assertEquals(-1, batch.add(0, 0, 10, 10, 1f, 2));
+
+        batch.clear();
+
+        assertEquals(0, batch.size());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+import org.opencv.core.Mat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link FrameContext} buffer reuse.
+ */
+public class FrameContextTest {
+
+    // Hands out Mat handles that are never dereferenced and records what is allocated and released,
+    // so the buffer lifecycle can be followed without OpenCV natives
+    private static class TrackingFrameContext extends FrameContext {
+        final List<int[]> allocated = new ArrayList<>();
+        final List<Mat> released = new ArrayList<>();
+        private long nextHandle = 1;
+
+        TrackingFrameContext() {
+            super(300, 10);
+        }
+
+        @Override
+        Mat newMat(int rows, int cols, int type) {
+            allocated.add(new int[]{rows, cols, type});
+            return new Mat(nextHandle++);
+        }
+
+        @Override
+        void releaseMat(Mat mat) {
+            released.add(mat);
+        }
+
+        @Override
+        void ensureTensorBuffers() {
+            // Model-sized buffers are not under test
+        }
+    }
+
+    @Test
+    public void steadyStateFrames_reuseBuffers() {
+        TrackingFrameContext ctx = new TrackingFrameContext();
+        assertTrue(ctx.ensureFrameSize(640, 480));
+        Mat transposed = ctx.transposed;
+        Mat rotated = ctx.rotated;
+        Mat restored = ctx.restored;
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(ctx.ensureFrameSize(640, 480));
+            ctx.beginFrame();
+        }
+
+        assertSame(transposed, ctx.transposed);
+        assertSame(rotated, ctx.rotated);
+        assertSame(restored, ctx.restored);
+        assertEquals(3, ctx.allocated.size());
+        assertTrue(ctx.released.isEmpty());
+    }
+
+    @Test
+    public void geometryChange_replacesAndReleasesBuffers() {
+        TrackingFrameContext ctx = new TrackingFrameContext();
+        ctx.ensureFrameSize(640, 480);
+        Mat rotated = ctx.rotated;
+
+        assertTrue(ctx.ensureFrameSize(1280, 720));
+        assertFalse(ctx.ensureFrameSize(1280, 720));
+
+        assertNotSame(rotated, ctx.rotated);
+        assertEquals(3, ctx.released.size());
+        assertTrue(ctx.released.contains(rotated));
+        assertEquals(6, ctx.allocated.size());
+        // The rotated frame is the camera frame turned on its side
+        assertArrayEquals(new int[]{1280, 720}, new int[]{ctx.allocated.get(4)[0], ctx.allocated.get(4)[1]});
+        assertArrayEquals(new int[]{720, 1280}, new int[]{ctx.allocated.get(5)[0], ctx.allocated.get(5)[1]});
+    }
+
+    @Test
+    public void outputBuffers_matchModelShape() {
+        FrameContext ctx = new FrameContext(300, 10);
+        assertEquals(300 * 300 * 3, ctx.inputBuffer.capacity());
+        assertSame(ctx.detections.boxTensor, ctx.outputs.get(0));
+        assertSame(ctx.detections.classTensor, ctx.outputs.get(1));
+        assertSame(ctx.detections.scoreTensor, ctx.outputs.get(2));
+        assertEquals(10 * 4 * 4, ctx.detections.boxTensor.capacity());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the latest-frame-wins {@link FrameMailbox}.
+ */
+public class FrameMailboxTest {
+
+    private static FrameMailbox<int[]> newMailbox() {
+        return new FrameMailbox<>(new int[1], new int[1], new FrameMailbox.Copier<int[]>() {
+            @Override
+            public void copy(int[] source, int[] slot) {
+                slot[0] = source[0];
+            }
+        });
+    }
+
+    @Test
+    public void take_returnsLatestFrameAndCountsDrops() throws InterruptedException {
+        FrameMailbox<int[]> mailbox = newMailbox();
+        mailbox.offer(new int[]{1});
+        mailbox.offer(new int[]{2});
+        mailbox.offer(new int[]{3});
+
+        assertEquals(3, mailbox.take()[0]);
+        assertEquals(3, mailbox.getOffered());
+        assertEquals(2, mailbox.getDropped());
+    }
+
+    @Test
+    public void offer_doesNotOverwriteTakenSlot() throws InterruptedException {
+        FrameMailbox<int[]> mailbox = newMailbox();
+        mailbox.offer(new int[]{1});
+        int[] taken = mailbox.take();
+
+        mailbox.offer(new int[]{2});
+
+        assertEquals(1, taken[0]);
+        assertEquals(2, mailbox.take()[0]);
+        assertEquals(0, mailbox.getDropped());
+    }
+
+    @Test
+    public void close_releasesWaitingConsumer() throws InterruptedException {
+        final FrameMailbox<int[]> mailbox = newMailbox();
+        final int[][] result = {new int[0]};
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result[0] = mailbox.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        consumer.start();
+
+        mailbox.close();
+        consumer.join(1000);
+
+        assertFalse(consumer.isAlive());
+        assertNull(result[0]);
+    }
+
+    @Test
+    public void release_handsBothSlotsToReleaserAfterClose() throws InterruptedException {
+        int[] first = new int[1];
+        int[] second = new int[1];
+        FrameMailbox<int[]> mailbox = new FrameMailbox<>(first, second, new FrameMailbox.Copier<int[]>() {
+            @Override
+            public void copy(int[] source, int[] slot) {
+                slot[0] = source[0];
+            }
+        });
+        mailbox.offer(new int[]{1});
+        mailbox.take();
+        mailbox.close();
+
+        final int[][] released = new int[2][];
+        final int[] count = {0};
+        mailbox.release(new FrameMailbox.Releaser<int[]>() {
+            @Override
+            public void release(int[] slot) {
+                released[count[0]++] = slot;
+            }
+        });
+
+        assertEquals(2, count[0]);
+        assertTrue(released[0] == first && released[1] == second || released[0] == second && released[1] == first);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void release_isRejectedWhileOpen() {
+        newMailbox().release(new FrameMailbox.Releaser<int[]>() {
+            @Override
+            public void release(int[] slot) {
+            }
+        });
+    }
+}
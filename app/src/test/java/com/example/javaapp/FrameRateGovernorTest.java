@@ -0,0 +1,62 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link FrameRateGovernor} decisions.
+ */
+public class FrameRateGovernorTest {
+
+    private static final long FAST_FRAME_NANOS = 5_000_000L; // 5 ms, well within 30 fps
+
+    @Test
+    public void emptyScene_lowersRateAfterHysteresis() {
+        FrameRateGovernor governor = new FrameRateGovernor(15, 30);
+        for (int i = 0; i < 15; i++) {
+            assertEquals(30, governor.update(FAST_FRAME_NANOS, 0));
+        }
+
+        assertEquals(15, governor.update(FAST_FRAME_NANOS, 0));
+        assertEquals(FrameRateGovernor.Reason.SCENE_EMPTY, governor.getLastReason());
+        assertEquals(1, governor.getDecreases());
+    }
+
+    @Test
+    public void vehicles_raiseRateImmediately() {
+        FrameRateGovernor governor = new FrameRateGovernor(15, 30);
+        for (int i = 0; i < 20; i++) {
+            governor.update(FAST_FRAME_NANOS, 0);
+        }
+
+        assertEquals(30, governor.update(FAST_FRAME_NANOS, 2));
+        assertEquals(FrameRateGovernor.Reason.VEHICLES_PRESENT, governor.getLastReason());
+        assertEquals(1, governor.getIncreases());
+    }
+
+    @Test
+    public void slowDevice_isCappedToSustainableRate() {
+        FrameRateGovernor governor = new FrameRateGovernor(5, 30);
+        int rate = 0;
+        for (int i = 0; i < 50; i++) {
+            rate = governor.update(100_000_000L, 3); // 100 ms per frame
+        }
+
+        assertEquals(9, rate); // 10 fps measured, 90% headroom
+        assertEquals(FrameRateGovernor.Reason.FALLING_BEHIND, governor.getLastReason());
+        assertTrue(governor.getBehindFrames() > 0);
+    }
+
+    @Test
+    public void rate_staysWithinBounds() {
+        FrameRateGovernor governor = new FrameRateGovernor(10, 20);
+        assertEquals(10, governor.update(1_000_000_000L, 1));
+        assertEquals(100, governor.getFrameIntervalMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBounds_areRejected() {
+        new FrameRateGovernor(30, 15);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link GroundLookupTable}.
+ */
+public class GroundLookupTableTest {
+
+    // Mild perspective: the horizon is far above the frame
+    private static final double[] HOMOGRAPHY = {0.05, 0, 0, 0, 0.05, 0, 0, -0.0005, 1};
+
+    @Test
+    public void project_matchesHomographyAtNodes() {
+        GroundPlane plane = new GroundPlane(HOMOGRAPHY);
+        GroundLookupTable table = new GroundLookupTable(plane, 100, 80, 10);
+        double[] exact = new double[2];
+        double[] looked = new double[2];
+
+        plane.project(40, 30, exact);
+        assertTrue(table.project(40, 30, looked));
+
+        assertEquals(exact[0], looked[0], 1e-5);
+        assertEquals(exact[1], looked[1], 1e-5);
+    }
+
+    @Test
+    public void project_interpolatesCloseToHomography() {
+        GroundPlane plane = new GroundPlane(HOMOGRAPHY);
+        GroundLookupTable table = new GroundLookupTable(plane, 100, 80, 10);
+        double[] exact = new double[2];
+        double[] looked = new double[2];
+
+        plane.project(47, 73, exact);
+        assertTrue(table.project(47, 73, looked));
+
+        assertEquals(exact[0], looked[0], 1e-3);
+        assertEquals(exact[1], looked[1], 1e-3);
+    }
+
+    @Test
+    public void project_fallsBackOutsideGrid() {
+        GroundPlane plane = new GroundPlane(HOMOGRAPHY);
+        GroundLookupTable table = new GroundLookupTable(plane, 100, 80, 10);
+        double[] exact = new double[2];
+        double[] looked = new double[2];
+
+        plane.project(-5, 500, exact);
+        assertTrue(table.project(-5, 500, looked));
+
+        assertEquals(exact[0], looked[0], 0);
+        assertEquals(exact[1], looked[1], 0);
+    }
+
+    @Test
+    public void read_restoresWrittenTable() throws IOException {
+        GroundLookupTable table = new GroundLookupTable(new GroundPlane(HOMOGRAPHY), 100, 80, 10);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        table.write(bytes);
+
+        GroundLookupTable restored = GroundLookupTable.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertTrue(restored.matches(new GroundPlane(HOMOGRAPHY), 100, 80, 10));
+        assertFalse(restored.matches(new GroundPlane(HOMOGRAPHY), 100, 80, 5));
+        double[] a = new double[2];
+        double[] b = new double[2];
+        table.project(47, 73, a);
+        restored.project(47, 73, b);
+        assertArrayEquals(a, b, 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherData() throws IOException {
+        GroundLookupTable.read(new ByteArrayInputStream(new byte[64]));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link GroundPlane}.
+ */
+public class GroundPlaneTest {
+
+    @Test
+    public void project_appliesPerspectiveDivision() {
+        // Rows further up the frame are further away: w shrinks towards the horizon at y = 100
+        GroundPlane plane = new GroundPlane(new double[]{1, 0, 0, 0, 1, 0, 0, -0.01, 1});
+        double[] out = new double[2];
+
+        assertTrue(plane.project(10, 50, out));
+
+        assertEquals(20, out[0], 1e-9);
+        assertEquals(100, out[1], 1e-9);
+    }
+
+    @Test
+    public void project_rejectsPointsBeyondHorizon() {
+        GroundPlane plane = new GroundPlane(new double[]{1, 0, 0, 0, 1, 0, 0, -0.01, 1});
+        double[] out = new double[2];
+
+        assertFalse(plane.project(10, 100, out));
+        assertFalse(plane.project(10, 150, out));
+    }
+
+    @Test
+    public void getHomography_returnsCopy() {
+        double[] h = {2, 0, 0, 0, 2, 0, 0, 0, 1};
+        GroundPlane plane = new GroundPlane(h);
+        h[0] = 5;
+        plane.getHomography()[0] = 7;
+        double[] out = new double[2];
+
+        plane.project(1, 1, out);
+
+        assertEquals(2, out[0], 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsSingularMatrix() {
+        new GroundPlane(new double[]{1, 2, 3, 2, 4, 6, 0, 0, 1});
+    }
+}
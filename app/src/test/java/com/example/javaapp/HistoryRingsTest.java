@@ -0,0 +1,101 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link HistoryRings}.
+ */
+public class HistoryRingsTest {
+
+    @Test
+    public void append_keepsRingsApart() {
+        HistoryRings rings = new HistoryRings(2, 3);
+        for (int i = 0; i < 5; i++) {
+            rings.append(0, i * 10, i, 0, i + 10, 10, Float.NaN, Float.NaN);
+            rings.append(1, i * 10, 0, 0, 20, 10, Float.NaN, Float.NaN);
+        }
+
+        assertEquals(3, rings.size(0));
+        assertEquals(3, rings.size(1));
+        assertEquals(40, rings.time(0, 0));
+        assertEquals(0.1, rings.slopeX(0), 1e-9);
+        assertEquals(0, rings.slopeX(1), 1e-9);
+        assertEquals(20, rings.meanWidth(1), 1e-9);
+
+        rings.clear(0);
+        assertEquals(0, rings.size(0));
+        assertEquals(0, rings.slopeX(0), 0);
+        assertEquals(3, rings.size(1));
+    }
+
+    @Test
+    public void setGround_refitsOnlyEntriesWithARoadPosition() {
+        HistoryRings rings = new HistoryRings(1, 4);
+        for (int i = 0; i < 4; i++) {
+            rings.append(0, i * 10, 0, 0, 10, 10, Float.NaN, Float.NaN);
+        }
+        assertEquals(0, rings.groundCount(0));
+
+        for (int age = 0; age < 3; age++) {
+            long time = rings.time(0, age);
+            rings.setGround(0, age, time * 0.5f, 0);
+        }
+
+        assertEquals(3, rings.groundCount(0));
+        assertEquals(0.5, rings.groundSpeed(0), 1e-9);
+        rings.setGround(0, 0, Float.NaN, Float.NaN);
+        assertEquals(2, rings.groundCount(0));
+    }
+
+    @Test
+    public void resize_keepsExistingRings() {
+        HistoryRings rings = new HistoryRings(1, 2);
+        rings.append(0, 5, 1, 2, 3, 4, Float.NaN, Float.NaN);
+
+        rings.resize(3);
+
+        assertEquals(1, rings.size(0));
+        assertEquals(3f, rings.right(0, 0), 0);
+        assertEquals(0, rings.size(2));
+    }
+
+    @Test
+    public void slopeX_matchesBatchFitAfterLongRun() {
+        int capacity = 30;
+        HistoryRings rings = new HistoryRings(1, capacity);
+        long start = 100_000_000_000_000L; // Nanosecond clock, about a day after boot
+        long step = 33_333_333; // 30 fps
+        int appends = 200_000; // Almost two hours of one track
+        for (int i = 0; i < appends; i++) {
+            float x = 0.5f * (i % 1000) + (i * 7919 % 13) * 0.1f; // Sweeps with some jitter
+            rings.append(0, start + i * step, x, 0, x + 40, 30, Float.NaN, Float.NaN);
+        }
+
+        // Batch least-squares fit of the same window, centered on its own times
+        double[] times = new double[capacity];
+        double[] xs = new double[capacity];
+        double meanT = 0;
+        double meanX = 0;
+        for (int age = 0; age < capacity; age++) {
+            times[age] = rings.time(0, age) - rings.time(0, capacity - 1);
+            xs[age] = rings.centerX(0, age);
+            meanT += times[age] / capacity;
+            meanX += xs[age] / capacity;
+        }
+        double ctt = 0;
+        double ctx = 0;
+        double cxx = 0;
+        for (int age = 0; age < capacity; age++) {
+            ctt += (times[age] - meanT) * (times[age] - meanT);
+            ctx += (times[age] - meanT) * (xs[age] - meanX);
+            cxx += (xs[age] - meanX) * (xs[age] - meanX);
+        }
+        double slope = ctx / ctt;
+        double standardError = Math.sqrt((cxx - ctx * slope) / (capacity - 2) / ctt);
+
+        assertEquals(slope, rings.slopeX(0), Math.abs(slope) * 1e-9);
+        assertEquals(standardError, rings.slopeStandardErrorX(0), standardError * 1e-6);
+    }
+}
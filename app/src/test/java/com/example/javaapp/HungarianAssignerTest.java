@@ -0,0 +1,104 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link HungarianAssigner}.
+ */
+public class HungarianAssignerTest {
+
+    private static final double GATE = 2;
+
+    @Test
+    public void solve_preventsTwoDetectionsClaimingOneTrack() {
+        HungarianAssigner assigner = new HungarianAssigner(GATE);
+        assigner.begin(2, 2);
+        // Greedy would give track 0 to both detections
+        assigner.setCost(0, 0, 0.1);
+        assigner.setCost(0, 1, 0.3);
+        assigner.setCost(1, 0, 0.2);
+
+        assigner.solve();
+
+        assertEquals(1, assigner.getAssignment(0));
+        assertEquals(0, assigner.getAssignment(1));
+    }
+
+    @Test
+    public void solve_leavesGatedRowsUnassigned() {
+        HungarianAssigner assigner = new HungarianAssigner(GATE);
+        assigner.begin(3, 1);
+        assigner.setCost(1, 0, 0.5);
+
+        assigner.solve();
+
+        assertEquals(-1, assigner.getAssignment(0));
+        assertEquals(0, assigner.getAssignment(1));
+        assertEquals(-1, assigner.getAssignment(2));
+    }
+
+    @Test
+    public void solve_handlesEmptyProblem() {
+        HungarianAssigner assigner = new HungarianAssigner(GATE);
+        assigner.begin(0, 4);
+        assigner.solve();
+        assigner.begin(2, 0);
+        assigner.solve();
+
+        assertEquals(-1, assigner.getAssignment(1));
+    }
+
+    @Test
+    public void solve_matchesBruteForceOptimum() {
+        Random random = new Random(11);
+        HungarianAssigner assigner = new HungarianAssigner(GATE);
+        for (int trial = 0; trial < 200; trial++) {
+            int rows = 1 + random.nextInt(5);
+            int cols = 1 + random.nextInt(5);
+            double[][] cost = new double[rows][cols];
+            assigner.begin(rows, cols);
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    cost[r][c] = random.nextDouble() < 0.3 ? GATE : random.nextDouble() * 1.9;
+                    assigner.setCost(r, c, cost[r][c]);
+                }
+            }
+
+            assigner.solve();
+
+            double total = 0;
+            boolean[] taken = new boolean[cols];
+            for (int r = 0; r < rows; r++) {
+                int c = assigner.getAssignment(r);
+                if (c >= 0) {
+                    assertFalse(taken[c]);
+                    taken[c] = true;
+                    total += cost[r][c];
+                } else {
+                    total += GATE;
+                }
+            }
+            assertEquals(bruteForce(cost, 0, new boolean[cols]), total, 1e-9);
+        }
+    }
+
+    // Minimum total cost where every row either takes a free column or pays the gate cost
+    private static double bruteForce(double[][] cost, int row, boolean[] taken) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = GATE + bruteForce(cost, row + 1, taken);
+        for (int c = 0; c < taken.length; c++) {
+            if (!taken[c] && cost[row][c] < GATE) {
+                taken[c] = true;
+                best = Math.min(best, cost[row][c] + bruteForce(cost, row + 1, taken));
+                taken[c] = false;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link OpenCvDnnBackend} row selection.
+ */
+public class OpenCvDnnBackendTest {
+
+    // DetectionOutput rows of [image, class, score, left, top, right, bottom]
+    private static float[] rows(float[][] rows) {
+        float[] flat = new float[rows.length * 7];
+        for (int i = 0; i < rows.length; i++) {
+            System.arraycopy(rows[i], 0, flat, i * 7, 7);
+        }
+        return flat;
+    }
+
+    @Test
+    public void pickTop_keepsHighestScoresAcrossClassGroups() {
+        // Grouped by class: many weak class-1 rows come before the strong class-3 rows
+        float[] rows = rows(new float[][]{
+                {0, 1, 0.3f, 0, 0, 1, 1},
+                {0, 1, 0.2f, 0, 0, 1, 1},
+                {0, 1, 0.1f, 0, 0, 1, 1},
+                {0, 3, 0.9f, 0, 0, 1, 1},
+                {0, 3, 0.8f, 0, 0, 1, 1}});
+        int[] picked = new int[2];
+
+        int n = OpenCvDnnBackend.pickTop(rows, 5, -1, 2, picked);
+
+        assertEquals(2, n);
+        assertArrayEquals(new int[]{3, 4}, picked);
+    }
+
+    @Test
+    public void pickTop_onlyTakesRowsOfRequestedImage() {
+        float[] rows = rows(new float[][]{
+                {0, 3, 0.9f, 0, 0, 1, 1},
+                {1, 3, 0.5f, 0, 0, 1, 1},
+                {0, 3, 0.4f, 0, 0, 1, 1},
+                {1, 3, 0.7f, 0, 0, 1, 1}});
+        int[] picked = new int[4];
+
+        int n = OpenCvDnnBackend.pickTop(rows, 4, 1, 4, picked);
+
+        assertEquals(2, n);
+        assertEquals(3, picked[0]);
+        assertEquals(1, picked[1]);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the pure-Java map construction of {@link PerspectiveRectifier}.
+ */
+public class PerspectiveRectifierTest {
+
+    @Test
+    public void invert_roundTripsToIdentity() {
+        double[] h = {1.2, 0.1, -30, 0.05, 0.9, 12, 0.0004, 0.0002, 1};
+        double[] inv = PerspectiveRectifier.invert(h);
+
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                double sum = 0;
+                for (int k = 0; k < 3; k++) {
+                    sum += h[r * 3 + k] * inv[k * 3 + c];
+                }
+                assertEquals(r == c ? 1.0 : 0.0, sum, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void computeMaps_matchesPerPixelProjection() {
+        double[] inv = PerspectiveRectifier.invert(new double[]{1.2, 0.1, -30, 0.05, 0.9, 12, 0.0004, 0.0002, 1});
+        int width = 40;
+        int height = 30;
+        float[] mapX = new float[width * height];
+        float[] mapY = new float[width * height];
+
+        PerspectiveRectifier.computeMaps(inv, width, height, mapX, mapY);
+
+        int[][] samples = {{0, 0}, {39, 0}, {17, 11}, {39, 29}};
+        for (int[] p : samples) {
+            double w = inv[6] * p[0] + inv[7] * p[1] + inv[8];
+            double x = (inv[0] * p[0] + inv[1] * p[1] + inv[2]) / w;
+            double y = (inv[3] * p[0] + inv[4] * p[1] + inv[5]) / w;
+            assertEquals(x, mapX[p[1] * width + p[0]], 1e-3);
+            assertEquals(y, mapY[p[1] * width + p[0]], 1e-3);
+        }
+    }
+
+    @Test
+    public void computeMaps_marksPointsBehindHorizon() {
+        // w = 1 - x / 10 turns non-positive from x = 10 on
+        double[] inv = {1, 0, 0, 0, 1, 0, -0.1, 0, 1};
+        float[] mapX = new float[20];
+        float[] mapY = new float[20];
+
+        PerspectiveRectifier.computeMaps(inv, 20, 1, mapX, mapY);
+
+        assertTrue(mapX[5] > 0);
+        assertEquals(-1f, mapX[12], 0f);
+        assertEquals(-1f, mapY[12], 0f);
+    }
+
+    private static double[] apply(double[] h, double x, double y) {
+        double w = h[6] * x + h[7] * y + h[8];
+        return new double[]{(h[0] * x + h[1] * y + h[2]) / w, (h[3] * x + h[4] * y + h[5]) / w};
+    }
+
+    @Test
+    public void unrotate_matchesRotatingAroundTheHomography() {
+        double[] h = {1.2, 0.1, -30, 0.05, 0.9, 12, 0.0004, 0.0002, 1};
+        int rotatedWidth = 480;
+        double[] camera = PerspectiveRectifier.unrotate(h, rotatedWidth);
+
+        double[][] samples = {{0, 0}, {100, 50}, {639, 479}, {320, 10}};
+        for (double[] p : samples) {
+            // Camera (x, y) is rotated (rotatedWidth - y, x); a rotated (x, y) is camera (y, rotatedWidth - x)
+            double[] rectified = apply(h, rotatedWidth - p[1], p[0]);
+            double[] expected = {rectified[1], rotatedWidth - rectified[0]};
+            double[] actual = apply(camera, p[0], p[1]);
+            assertEquals(expected[0], actual[0], 1e-9);
+            assertEquals(expected[1], actual[1], 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singularHomography_isRejected() {
+        PerspectiveRectifier.invert(new double[]{1, 2, 3, 2, 4, 6, 0, 0, 1});
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ReidGallery}.
+ */
+public class ReidGalleryTest {
+
+    private static float[] histogram(float... weights) {
+        float total = 0;
+        for (float w : weights) {
+            total += w;
+        }
+        float[] h = new float[weights.length];
+        for (int i = 0; i < h.length; i++) {
+            h[i] = weights[i] / total;
+        }
+        return h;
+    }
+
+    private static final ConstantVelocityFilter MOTION = new ConstantVelocityFilter(500, 6, 800);
+    private static final double GATE = 13.8;
+    private static final double[] PARKED = new double[ConstantVelocityFilter.STATE_SIZE];
+
+    static {
+        MOTION.reset(PARKED, 0, 100, 100);
+        for (int i = 0; i < 20; i++) {
+            MOTION.predict(PARKED, 0, 0.1);
+            MOTION.update(PARKED, 0, 100, 100);
+        }
+    }
+
+    // Gallery on a millisecond clock
+    private static ReidGallery gallery(int capacity, int descriptorSize, int historyCapacity, long maxAge) {
+        return new ReidGallery(capacity, descriptorSize, historyCapacity, 4, 0.35f, maxAge, MOTION, GATE, 1000);
+    }
+
+    // Adds a lost car that was standing at (100, 100)
+    private static int lose(ReidGallery gallery, int id, long time, float[] descriptor) {
+        int entry = gallery.add(id, time, descriptor, 0);
+        gallery.setMotion(entry, 2, PARKED, 0, time);
+        return entry;
+    }
+
+    @Test
+    public void match_findsClosestLostTrackAndRestoresHistory() {
+        ReidGallery gallery = gallery(4, 4, 3, 5000);
+        int red = lose(gallery, 7, 1000, histogram(8, 1, 1, 0));
+        gallery.setHistory(red, new long[]{900, 950, 1000}, new float[]{0, 0, 10, 10, 5, 0, 15, 10, 10, 0, 20, 10}, 3);
+        lose(gallery, 9, 1000, histogram(0, 1, 1, 8));
+
+        int entry = gallery.match(histogram(7, 2, 1, 0), 0, 2, 100, 100, 2000);
+
+        assertEquals(7, gallery.getId(entry));
+        long[] times = new long[3];
+        float[] boxes = new float[12];
+        assertEquals(3, gallery.getHistory(entry, times, boxes));
+        assertEquals(950, times[1]);
+        assertEquals(20f, boxes[10], 0);
+
+        gallery.take(entry);
+        assertEquals(1, gallery.size());
+        assertEquals(1, gallery.getReidentified());
+    }
+
+    @Test
+    public void match_rejectsDissimilarAndExpiredEntries() {
+        ReidGallery gallery = gallery(4, 4, 3, 5000);
+        lose(gallery, 1, 0, histogram(1, 0, 0, 0));
+        lose(gallery, 2, 4000, histogram(0, 0, 0, 1));
+
+        assertEquals(-1, gallery.match(histogram(0, 1, 0, 0), 0, 2, 100, 100, 6000));
+        // Entry 1 was lost 6 s ago and has been dropped on the way
+        assertEquals(1, gallery.size());
+        assertEquals(-1, gallery.match(histogram(1, 0, 0, 0), 0, 2, 100, 100, 6000));
+    }
+
+    @Test
+    public void match_gatesByPredictedPositionAndClass() {
+        // A car driving right at 200 px/s, lost at x = 400
+        double[] driving = new double[ConstantVelocityFilter.STATE_SIZE];
+        MOTION.reset(driving, 0, 0, 300);
+        for (int i = 1; i <= 20; i++) {
+            MOTION.predict(driving, 0, 0.1);
+            MOTION.update(driving, 0, i * 20, 300);
+        }
+        ReidGallery gallery = gallery(4, 2, 1, 5000);
+        int entry = gallery.add(5, 0, histogram(1, 0), 0);
+        gallery.setMotion(entry, 2, driving, 0, 0);
+
+        // Half a second later it looks the same wherever it shows up, but only fits its motion ahead
+        assertEquals(-1, gallery.match(histogram(1, 0), 0, 2, 400, 1400, 500));
+        assertEquals(-1, gallery.match(histogram(1, 0), 0, 2, -200, 300, 500));
+        assertEquals(-1, gallery.match(histogram(1, 0), 0, 7, 500, 300, 500));
+        assertEquals(entry, gallery.match(histogram(1, 0), 0, 2, 500, 300, 500));
+    }
+
+    @Test
+    public void match_skipsEntriesWithoutMotion() {
+        ReidGallery gallery = gallery(2, 2, 1, 5000);
+        gallery.add(1, 0, histogram(1, 0), 0);
+
+        assertEquals(-1, gallery.match(histogram(1, 0), 0, 2, 100, 100, 10));
+    }
+
+    @Test
+    public void listener_getsEntriesThatLeaveWithoutBeingReidentified() {
+        ReidGallery gallery = gallery(2, 2, 1, 100);
+        final int[] forgotten = new int[4];
+        final int[] count = {0};
+        gallery.setListener(new ReidGallery.Listener() {
+            @Override
+            public void onForgotten(int entry) {
+                forgotten[count[0]++] = gallery.getId(entry);
+            }
+        });
+        int taken = lose(gallery, 1, 0, histogram(1, 0));
+        gallery.setTrajectory(taken, new long[]{0, 5}, new float[]{1, 2}, new float[]{3, 4}, 2);
+        lose(gallery, 2, 50, histogram(0, 1));
+
+        gallery.take(taken);
+        lose(gallery, 3, 60, histogram(1, 1));
+        lose(gallery, 4, 70, histogram(1, 0)); // Evicts 2
+        gallery.expire(165); // Expires 3
+        gallery.clear(); // Forgets 4
+
+        assertEquals(3, count[0]);
+        assertArrayEquals(new int[]{2, 3, 4}, new int[]{forgotten[0], forgotten[1], forgotten[2]});
+    }
+
+    @Test
+    public void getTrajectory_returnsStoredPoints() {
+        ReidGallery gallery = gallery(2, 2, 1, 100);
+        int entry = lose(gallery, 1, 0, histogram(1, 0));
+        gallery.setTrajectory(entry, new long[]{0, 5, 9, 12, 20}, new float[]{1, 2, 3, 4, 5}, new float[]{5, 4, 3, 2, 1}, 5);
+        long[] times = new long[4];
+        float[] xs = new float[4];
+        float[] ys = new float[4];
+
+        // The budget of 4 points keeps the oldest ones
+        assertEquals(4, gallery.getTrajectory(entry, times, xs, ys));
+        assertEquals(12, times[3]);
+        assertEquals(2f, ys[3], 0);
+    }
+
+    @Test
+    public void add_evictsLeastRecentlyLostWhenFull() {
+        ReidGallery gallery = gallery(2, 2, 1, 10000);
+        lose(gallery, 1, 0, histogram(1, 0));
+        lose(gallery, 2, 10, histogram(0, 1));
+
+        lose(gallery, 3, 20, histogram(1, 1));
+
+        assertEquals(2, gallery.size());
+        assertEquals(1, gallery.getEvictions());
+        assertEquals(-1, gallery.match(histogram(1, 0), 0, 2, 100, 100, 30));
+        assertEquals(2, gallery.getId(gallery.match(histogram(0, 1), 0, 2, 100, 100, 30)));
+    }
+
+    @Test
+    public void freedEntries_areReused() {
+        ReidGallery gallery = gallery(2, 2, 1, 10000);
+        for (int i = 0; i < 50; i++) {
+            gallery.take(lose(gallery, i, i, histogram(1, 0)));
+        }
+        lose(gallery, 100, 0, histogram(1, 0));
+        lose(gallery, 101, 0, histogram(0, 1));
+
+        assertEquals(2, gallery.size());
+        assertEquals(0, gallery.getEvictions());
+    }
+
+    @Test
+    public void distance_isZeroForIdenticalAndOneForDisjointHistograms() {
+        float[] a = histogram(1, 1, 0, 0);
+        float[] b = histogram(0, 0, 1, 1);
+
+        assertEquals(0f, ReidGallery.distance(a, 0, a, 0, 4), 1e-3);
+        assertEquals(1f, ReidGallery.distance(a, 0, b, 0, 4), 1e-6);
+    }
+
+    @Test
+    public void clear_forgetsEveryEntry() {
+        ReidGallery gallery = gallery(2, 2, 1, 5000);
+        lose(gallery, 1, 0, histogram(1, 0));
+        lose(gallery, 2, 0, histogram(0, 1));
+
+        gallery.clear();
+
+        assertEquals(0, gallery.size());
+        assertEquals(-1, gallery.match(histogram(1, 0), 0, 2, 100, 100, 10));
+        lose(gallery, 3, 0, histogram(1, 0));
+        lose(gallery, 4, 0, histogram(0, 1));
+        assertEquals(0, gallery.getEvictions());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link SpatialGrid}.
+ */
+public class SpatialGridTest {
+
+    private static int[] sorted(int[] found, int count) {
+        int[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Test
+    public void within_findsPointsAcrossCellBorder() {
+        SpatialGrid grid = new SpatialGrid(100);
+        grid.insert(95, 50); // Cell (0, 0)
+        grid.insert(140, 50); // Cell (1, 0)
+        grid.insert(390, 50); // Far away
+        int[] found = new int[3];
+
+        assertArrayEquals(new int[]{0, 1}, sorted(found, grid.within(105, 50, 100, found)));
+        assertArrayEquals(new int[]{1}, sorted(found, grid.within(230, 50, 100, found)));
+        assertEquals(0, grid.within(260, 50, 100, found));
+    }
+
+    @Test
+    public void within_excludesPointsAtExactlyMaxDistance() {
+        SpatialGrid grid = new SpatialGrid(300);
+        grid.insert(0, 0);
+        int[] found = new int[1];
+
+        assertEquals(0, grid.within(300, 0, 300, found));
+        assertEquals(1, grid.within(299, 0, 300, found));
+    }
+
+    @Test
+    public void within_matchesLinearScan() {
+        Random random = new Random(7);
+        SpatialGrid grid = new SpatialGrid(300);
+        double[][] points = new double[500][];
+        int[] found = new int[points.length];
+        for (int frame = 0; frame < 5; frame++) {
+            grid.clear();
+            for (int i = 0; i < points.length; i++) {
+                points[i] = new double[]{random.nextDouble() * 4000 - 500, random.nextDouble() * 3000 - 500};
+                grid.insert(points[i][0], points[i][1]);
+            }
+            for (int q = 0; q < 200; q++) {
+                double x = random.nextDouble() * 4000 - 500;
+                double y = random.nextDouble() * 3000 - 500;
+                double radius = random.nextDouble() * 300;
+                int[] expected = new int[points.length];
+                int count = 0;
+                for (int i = 0; i < points.length; i++) {
+                    if (Math.hypot(points[i][0] - x, points[i][1] - y) < radius) {
+                        expected[count++] = i;
+                    }
+                }
+                assertArrayEquals(Arrays.copyOf(expected, count), sorted(found, grid.within(x, y, radius, found)));
+            }
+        }
+        assertEquals(500, grid.size());
+    }
+
+    @Test
+    public void clear_forgetsPreviousPoints() {
+        SpatialGrid grid = new SpatialGrid(50);
+        grid.insert(10, 10);
+        grid.clear();
+
+        assertEquals(0, grid.within(10, 10, 50, new int[1]));
+        assertEquals(0, grid.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void radiusLargerThanCell_isRejected() {
+        new SpatialGrid(100).within(0, 0, 150, new int[0]);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link SpeedViolationDetector}.
+ */
+public class SpeedViolationDetectorTest {
+
+    private static SpeedViolationDetector newDetector() {
+        // Starts 5 km/h over, ends below 2 km/h over, reported after 100 time units of updates at most
+        // 100 apart
+        SpeedViolationDetector detector = new SpeedViolationDetector(5, 2, 100, 100, 0.5f);
+        detector.setZones(Collections.singletonList(SpeedZone.wholeFrame("all", 50)));
+        return detector;
+    }
+
+    @Test
+    public void update_reportsSustainedSpeedingOnce() {
+        SpeedViolationDetector detector = newDetector();
+        SpeedViolation violation = null;
+        int reports = 0;
+        for (int t = 0; t <= 500; t += 50) {
+            SpeedViolation v = detector.update(0, 1, 2, t, 0.5f, 0.5f, 60 + t / 100, 0.9f);
+            if (v != null) {
+                violation = v;
+                reports++;
+            }
+        }
+
+        assertEquals(1, reports);
+        assertEquals(1, detector.getViolations());
+        assertEquals(1, violation.getTrackId());
+        assertEquals(2, violation.getClassId());
+        assertEquals(0, violation.getStartNanos());
+        assertEquals(100, violation.getTimestampNanos());
+        assertEquals(61, violation.getPeakSpeed(), 0);
+        assertEquals("all", violation.getZone().getName());
+    }
+
+    @Test
+    public void update_ignoresShortAndMarginalSpeeding() {
+        SpeedViolationDetector detector = newDetector();
+
+        // Over the limit but within the entry margin
+        assertNull(detector.update(0, 1, 0, 0, 0.5f, 0.5f, 54, 0.9f));
+        assertNull(detector.update(0, 1, 0, 200, 0.5f, 0.5f, 54, 0.9f));
+        // A burst that ends before the minimum duration
+        assertNull(detector.update(0, 1, 0, 300, 0.5f, 0.5f, 58, 0.9f));
+        assertNull(detector.update(0, 1, 0, 350, 0.5f, 0.5f, 51, 0.9f));
+        assertNull(detector.update(0, 1, 0, 400, 0.5f, 0.5f, 51, 0.9f));
+        // An unconfident reading does not start an episode
+        assertNull(detector.update(0, 1, 0, 500, 0.5f, 0.5f, 70, 0.2f));
+        assertNull(detector.update(0, 1, 0, 700, 0.5f, 0.5f, 51, 0.9f));
+
+        assertEquals(0, detector.getViolations());
+    }
+
+    @Test
+    public void update_restartsEpisodeAfterGapInUpdates() {
+        SpeedViolationDetector detector = newDetector();
+
+        // One over-limit reading, then nothing while the track coasts
+        assertNull(detector.update(0, 1, 0, 0, 0.5f, 0.5f, 70, 0.9f));
+        assertNull(detector.update(0, 1, 0, 600, 0.5f, 0.5f, 70, 0.9f));
+        assertEquals(0, detector.getViolations());
+
+        // The episode counts from the first update after the gap
+        assertNull(detector.update(0, 1, 0, 650, 0.5f, 0.5f, 70, 0.9f));
+        assertNotNull(detector.update(0, 1, 0, 700, 0.5f, 0.5f, 70, 0.9f));
+    }
+
+    @Test
+    public void setMaxGap_letsSlowUpdatesReport() {
+        SpeedViolationDetector detector = newDetector();
+        // Updates every 250 time units, e.g. a device running at 4 fps
+        detector.setMaxGap(500);
+
+        assertNull(detector.update(0, 1, 0, 0, 0.5f, 0.5f, 70, 0.9f));
+        assertNotNull(detector.update(0, 1, 0, 250, 0.5f, 0.5f, 70, 0.9f));
+    }
+
+    @Test
+    public void update_keepsEpisodeWithinHysteresisBand() {
+        SpeedViolationDetector detector = newDetector();
+
+        assertNull(detector.update(0, 1, 0, 0, 0.5f, 0.5f, 56, 0.9f));
+        // Between limit + exit margin and limit + entry margin the episode goes on
+        assertNull(detector.update(0, 1, 0, 50, 0.5f, 0.5f, 53, 0.9f));
+
+        assertNotNull(detector.update(0, 1, 0, 100, 0.5f, 0.5f, 53, 0.9f));
+    }
+
+    @Test
+    public void update_appliesLimitOfZoneVehicleIsIn() {
+        SpeedViolationDetector detector = new SpeedViolationDetector(5, 2, 0, 100, 0.5f);
+        detector.setZones(Arrays.asList(
+                new SpeedZone("slow", 30, new float[]{0, 0, 0.5f, 0, 0.5f, 1, 0, 1}),
+                new SpeedZone("fast", 100, new float[]{0.5f, 0, 1, 0, 1, 1, 0.5f, 1})));
+
+        assertNull(detector.update(0, 1, 0, 0, 0.75f, 0.5f, 80, 0.9f));
+        SpeedViolation violation = detector.update(1, 2, 0, 0, 0.25f, 0.5f, 40, 0.9f);
+
+        assertNotNull(violation);
+        assertEquals("slow", violation.getZone().getName());
+    }
+
+    @Test
+    public void update_doesNotReportReidentifiedTrackAgain() {
+        SpeedViolationDetector detector = new SpeedViolationDetector(5, 2, 0, 100, 0.5f);
+        detector.setZones(Collections.singletonList(SpeedZone.wholeFrame("all", 50)));
+
+        assertNotNull(detector.update(0, 7, 0, 0, 0.5f, 0.5f, 80, 0.9f));
+        // Another vehicle takes the slot, then the first one comes back in a new slot
+        assertNotNull(detector.update(0, 8, 0, 10, 0.5f, 0.5f, 80, 0.9f));
+
+        assertNull(detector.update(3, 7, 0, 20, 0.5f, 0.5f, 80, 0.9f));
+        assertEquals(2, detector.getViolations());
+    }
+
+    @Test
+    public void reset_forgetsEpisodesAndReportedTracks() {
+        SpeedViolationDetector detector = newDetector();
+        assertNull(detector.update(0, 1, 0, 1000, 0.5f, 0.5f, 70, 0.9f));
+        assertNotNull(detector.update(0, 1, 0, 1100, 0.5f, 0.5f, 70, 0.9f));
+
+        detector.reset();
+
+        // The clock starts over and the same track may be reported again
+        assertNull(detector.update(0, 1, 0, 0, 0.5f, 0.5f, 70, 0.9f));
+        assertNotNull(detector.update(0, 1, 0, 100, 0.5f, 0.5f, 70, 0.9f));
+        assertEquals(2, detector.getViolations());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link SpeedZone}.
+ */
+public class SpeedZoneTest {
+
+    @Test
+    public void contains_followsPolygonEdges() {
+        // A lane narrowing towards the top of the frame
+        SpeedZone lane = new SpeedZone("lane", 50, new float[]{0.4f, 0.2f, 0.5f, 0.2f, 0.8f, 1f, 0.2f, 1f});
+
+        assertTrue(lane.contains(0.45f, 0.3f));
+        assertTrue(lane.contains(0.7f, 0.95f));
+        assertFalse(lane.contains(0.3f, 0.3f)); // Inside the bounding box, outside the lane
+        assertFalse(lane.contains(0.5f, 0.1f));
+    }
+
+    @Test
+    public void wholeFrame_containsEveryPointOfFrame() {
+        SpeedZone zone = SpeedZone.wholeFrame("all", 30);
+
+        assertTrue(zone.contains(0.5f, 0.5f));
+        assertTrue(zone.contains(0.01f, 0.99f));
+        assertFalse(zone.contains(1.5f, 0.5f));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsTwoCorners() {
+        new SpeedZone("line", 30, new float[]{0, 0, 1, 1});
+    }
+}
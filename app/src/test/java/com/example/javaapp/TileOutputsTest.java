@@ -0,0 +1,76 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TileOutputs}.
+ */
+public class TileOutputsTest {
+
+    @Test
+    public void demultiplex_mapsSlotDetectionsThroughTheirOwnCrop() {
+        TileOutputs outputs = new TileOutputs(2, 3);
+        outputs.clearScores(2);
+        // The same normalized box in both slots: [top, left, bottom, right]
+        outputs.put(0, 0, 2f, 0.9f, 0.5f, 0.5f, 1f, 1f);
+        outputs.put(1, 0, 3f, 0.8f, 0.5f, 0.5f, 1f, 1f);
+        DetectionBatch detections = new DetectionBatch(3, 6);
+
+        // Slot 1 was a 100x100 crop at (300, 200) of the frame
+        outputs.demultiplex(1, detections);
+        detections.addRaw(0, 300, 200, 100, 100);
+
+        assertEquals(1, detections.size());
+        assertEquals(350f, detections.left[0], 1e-4);
+        assertEquals(250f, detections.top[0], 1e-4);
+        assertEquals(400f, detections.right[0], 1e-4);
+        assertEquals(300f, detections.bottom[0], 1e-4);
+        assertEquals(3, detections.classId[0]);
+        assertEquals(0.8f, detections.score[0], 1e-6);
+    }
+
+    @Test
+    public void demultiplex_doesNotLeakRowsBetweenSlots() {
+        TileOutputs outputs = new TileOutputs(2, 3);
+        outputs.clearScores(2);
+        outputs.put(0, 0, 2f, 0.9f, 0f, 0f, 1f, 1f);
+        outputs.put(0, 1, 2f, 0.7f, 0f, 0f, 1f, 1f);
+        outputs.put(0, 2, 2f, 0.6f, 0f, 0f, 1f, 1f);
+        outputs.put(1, 0, 3f, 0.8f, 0f, 0f, 1f, 1f);
+        DetectionBatch detections = new DetectionBatch(3, 6);
+
+        outputs.demultiplex(1, detections);
+
+        assertArrayEquals(new float[]{0.8f, 0f, 0f}, detections.rawScores, 0);
+        assertEquals(3f, detections.rawClasses[0], 0);
+    }
+
+    @Test
+    public void clearScores_dropsRowsOfPreviousRun() {
+        TileOutputs outputs = new TileOutputs(2, 2);
+        outputs.put(0, 1, 2f, 0.9f, 0f, 0f, 1f, 1f);
+        outputs.put(1, 1, 2f, 0.9f, 0f, 0f, 1f, 1f);
+        DetectionBatch detections = new DetectionBatch(2, 4);
+
+        // The next run only reports one row for slot 0
+        outputs.clearScores(2);
+        outputs.put(0, 0, 2f, 0.5f, 0f, 0f, 1f, 1f);
+
+        outputs.demultiplex(0, detections);
+        assertArrayEquals(new float[]{0.5f, 0f}, detections.rawScores, 0);
+        outputs.demultiplex(1, detections);
+        assertArrayEquals(new float[]{0f, 0f}, detections.rawScores, 0);
+    }
+
+    @Test
+    public void tensors_coverExactlyTheBatch() {
+        TileOutputs outputs = new TileOutputs(4, 10);
+
+        assertEquals(2 * 10 * 4 * 4, ((ByteBuffer) outputs.tensors(2).get(0)).capacity());
+        assertEquals(4 * 10 * 4, ((ByteBuffer) outputs.tensors(4).get(2)).capacity());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TilePlanner} and tile-border merging in {@link DetectionBatch}.
+ */
+public class TilePlannerTest {
+
+    @Test
+    public void plainRegion_isSingleCrop() {
+        int[] crops = TilePlanner.plan(Collections.singletonList(new RegionOfInterest(0f, 1 / 3f, 1f, 1f)), 480, 600, 300);
+
+        assertArrayEquals(new int[]{0, 200, 480, 400}, crops);
+    }
+
+    @Test
+    public void tiledRegion_coversRegionWithOverlappingModelSizedTiles() {
+        int[] crops = TilePlanner.plan(Collections.singletonList(RegionOfInterest.tiledFullFrame(0.2f)), 720, 480, 300);
+
+        // 720 wide needs 3 columns at a 240 px stride, 480 high needs 2 rows
+        assertEquals(6 * 4, crops.length);
+        for (int c = 0; c < crops.length; c += 4) {
+            assertEquals(300, crops[c + 2]);
+            assertEquals(300, crops[c + 3]);
+            assertTrue(crops[c] + crops[c + 2] <= 720);
+            assertTrue(crops[c + 1] + crops[c + 3] <= 480);
+        }
+        assertEquals(0, crops[0]);
+        assertEquals(420, crops[8]); // Last column ends at the right edge
+        assertEquals(180, crops[13]); // Last row ends at the bottom edge
+    }
+
+    @Test
+    public void tiledRegionSmallerThanTile_isSingleCrop() {
+        int[] crops = TilePlanner.plan(Arrays.asList(new RegionOfInterest(0f, 0f, 0.5f, 0.5f, true, 0.2f)), 400, 400, 300);
+
+        assertArrayEquals(new int[]{0, 0, 200, 200}, crops);
+    }
+
+    @Test
+    public void mergeOverlapping_joinsBoxCutByTileBorder() {
+        DetectionBatch batch = new DetectionBatch(10, 10);
+        batch.add(200, 100, 300, 160, 0.6f, 2); // Right edge clipped by the first tile
+        batch.add(220, 100, 330, 160, 0.8f, 2); // Same car seen by the next tile
+        batch.add(500, 100, 560, 160, 0.9f, 7); // Unrelated vehicle
+
+        batch.mergeOverlapping(0.5f, 0.7f);
+
+        assertEquals(2, batch.size());
+        assertEquals(200f, batch.left[0], 1e-4);
+        assertEquals(330f, batch.right[0], 1e-4);
+        assertEquals(0.8f, batch.score[0], 1e-6);
+        assertEquals(7, batch.classId[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidRegion_isRejected() {
+        new RegionOfInterest(0.5f, 0f, 0.2f, 1f);
+    }
+}
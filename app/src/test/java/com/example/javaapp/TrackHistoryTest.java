@@ -0,0 +1,75 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TrackHistory}.
+ */
+public class TrackHistoryTest {
+
+    @Test
+    public void add_indexesFromNewestToOldest() {
+        TrackHistory history = new TrackHistory(4);
+        history.add(100, 0, 0, 10, 20);
+        history.add(200, 5, 0, 15, 20);
+
+        assertEquals(2, history.size());
+        assertEquals(200, history.time(0));
+        assertEquals(100, history.time(1));
+        assertEquals(10f, history.centerX(0), 0);
+        assertEquals(10f, history.width(1), 0);
+        assertEquals(20f, history.height(1), 0);
+    }
+
+    @Test
+    public void add_overwritesOldestWhenFull() {
+        TrackHistory history = new TrackHistory(3);
+        for (int i = 0; i < 7; i++) {
+            history.add(i * 10, i, i, i + 1, i + 1);
+        }
+
+        assertEquals(3, history.size());
+        assertEquals(60, history.time(0));
+        assertEquals(40, history.time(2));
+        assertEquals(4f, history.left(2), 0);
+        assertEquals(5f, history.bottom(2), 0);
+    }
+
+    @Test
+    public void slopeX_followsTheWindowAsItSlides() {
+        TrackHistory history = new TrackHistory(4);
+        for (int i = 0; i < 10; i++) {
+            float x = i < 6 ? 0 : (i - 5) * 3; // Standing, then moving 3 px per 10 time units
+            history.add(i * 10, x, 0, x + 20, 10);
+        }
+
+        assertEquals(0.3, history.slopeX(), 1e-9);
+        assertEquals(1, history.confidenceX(), 1e-6);
+        assertEquals(20, history.meanWidth(), 1e-9);
+
+        history.clear();
+        assertEquals(0, history.slopeX(), 0);
+        assertEquals(0, history.meanWidth(), 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void ageBeyondSize_isRejected() {
+        TrackHistory history = new TrackHistory(5);
+        history.add(1, 0, 0, 1, 1);
+
+        history.time(1);
+    }
+
+    @Test
+    public void clear_emptiesHistory() {
+        TrackHistory history = new TrackHistory(2);
+        history.add(1, 0, 0, 1, 1);
+        history.clear();
+        history.add(2, 3, 3, 4, 4);
+
+        assertEquals(1, history.size());
+        assertEquals(2, history.time(0));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TrackLifecycle} and its application in {@link TrackTable}.
+ */
+public class TrackLifecycleTest {
+
+    private final TrackLifecycle lifecycle = new TrackLifecycle(3, 150, 300, 1000);
+
+    @Test
+    public void tentative_confirmsAfterEnoughHitsOverEnoughTime() {
+        assertEquals(TrackLifecycle.TENTATIVE, lifecycle.onHit(TrackLifecycle.TENTATIVE, 2, 400));
+        assertEquals(TrackLifecycle.TENTATIVE, lifecycle.onHit(TrackLifecycle.TENTATIVE, 5, 100));
+        assertEquals(TrackLifecycle.CONFIRMED, lifecycle.onHit(TrackLifecycle.TENTATIVE, 3, 150));
+    }
+
+    @Test
+    public void confirmed_coastsOnMissAndRecoversOnHit() {
+        byte state = lifecycle.onMiss(TrackLifecycle.CONFIRMED, 70);
+        assertEquals(TrackLifecycle.COASTING, state);
+        assertEquals(TrackLifecycle.COASTING, lifecycle.onMiss(state, 900));
+        assertEquals(TrackLifecycle.CONFIRMED, lifecycle.onHit(state, 10, 2000));
+        assertEquals(TrackLifecycle.DELETED, lifecycle.onMiss(state, 1001));
+    }
+
+    @Test
+    public void tentative_isDeletedSoonerThanConfirmed() {
+        assertEquals(TrackLifecycle.TENTATIVE, lifecycle.onMiss(TrackLifecycle.TENTATIVE, 300));
+        assertEquals(TrackLifecycle.DELETED, lifecycle.onMiss(TrackLifecycle.TENTATIVE, 301));
+    }
+
+    @Test
+    public void expiry_isIndependentOfProcessingRate() {
+        // The same single detection followed by 600 ms of misses, at 30 fps and at 5 fps
+        for (int fps : new int[]{30, 5}) {
+            TrackTable table = new TrackTable(4, 4, new ConstantVelocityFilter(500, 6, 800));
+            long frameMillis = 1000 / fps;
+            table.beginFrame();
+            int slot = table.create(1, 0, 0, 0);
+            table.observe(slot, 0, 0, 0, 0, 0, 1, 1);
+            table.advanceLifecycle(lifecycle, 0);
+
+            long deletedAt = -1;
+            for (long now = frameMillis; now <= 600 && deletedAt < 0; now += frameMillis) {
+                table.beginFrame();
+                table.advanceLifecycle(lifecycle, now);
+                if (table.activeCount() == 0) {
+                    deletedAt = now;
+                }
+            }
+            assertTrue("deleted at " + deletedAt + " ms at " + fps + " fps", deletedAt > 300 && deletedAt <= 300 + frameMillis);
+        }
+    }
+
+    @Test
+    public void advanceLifecycle_countsOnlyConfirmedTracks() {
+        TrackTable table = new TrackTable(4, 4, new ConstantVelocityFilter(500, 6, 800));
+        int steady = table.create(1, 0, 0, 0);
+        int flicker = -1;
+        int confirmed = 0;
+        for (long now = 0; now <= 200; now += 50) {
+            table.beginFrame();
+            table.observe(steady, now, 0, 0, 0, 0, 1, 1);
+            if (now == 100) {
+                flicker = table.create(2, 50, 50, now);
+                table.observe(flicker, now, 50, 50, 49, 49, 51, 51);
+            }
+            confirmed = table.advanceLifecycle(lifecycle, now);
+        }
+
+        assertEquals(1, confirmed);
+        assertTrue(table.isConfirmed(steady));
+        assertFalse(table.isConfirmed(flicker));
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TrackTable}.
+ */
+public class TrackTableTest {
+
+    private static TrackTable newTable(int capacity) {
+        return new TrackTable(capacity, 4, new ConstantVelocityFilter(500, 6, 800));
+    }
+
+    @Test
+    public void remove_recyclesSlotsThroughFreeList() {
+        TrackTable table = newTable(4);
+        int a = table.create(1, 10, 10, 0);
+        int b = table.create(2, 20, 20, 0);
+        int c = table.create(3, 30, 30, 0);
+
+        table.remove(b);
+        int d = table.create(4, 40, 40, 0);
+
+        assertEquals(b, d);
+        assertEquals(3, table.activeCount());
+        assertEquals(4, table.id[d]);
+        assertEquals(40, table.centroidX[d], 0);
+        assertTrue(table.isActive(a));
+        assertTrue(table.isActive(c));
+        assertEquals(4, table.capacity());
+    }
+
+    @Test
+    public void create_growsWhenFullAndKeepsData() {
+        TrackTable table = newTable(2);
+        int a = table.create(1, 10, 10, 0);
+        table.observe(a, 100, 10, 10, 0, 0, 20, 20);
+        table.create(2, 20, 20, 0);
+
+        int c = table.create(3, 30, 30, 0);
+
+        assertEquals(4, table.capacity());
+        assertEquals(3, table.activeCount());
+        assertEquals(30, table.centroidX[c], 0);
+        assertEquals(100, table.historyTime(a, 0));
+        assertEquals(10f, table.historyCenterX(a, 0), 0);
+    }
+
+    @Test
+    public void observe_keepsPerSlotHistoryRing() {
+        TrackTable table = newTable(4);
+        int a = table.create(1, 0, 0, 0);
+        int b = table.create(2, 0, 0, 0);
+        for (int i = 0; i < 6; i++) {
+            table.observe(a, i, i, 0, i - 1, 0, i + 1, 2);
+        }
+        table.observe(b, 99, 5, 5, 4, 4, 6, 6);
+
+        assertEquals(4, table.historySize(a));
+        assertEquals(5, table.historyTime(a, 0));
+        assertEquals(2, table.historyTime(a, 3));
+        assertEquals(2f, table.historyWidth(a, 0), 0);
+        assertEquals(1, table.historySize(b));
+        assertEquals(99, table.historyTime(b, 0));
+    }
+
+    @Test
+    public void beginFrame_clearsMatchFlags() {
+        TrackTable table = newTable(4);
+        table.beginFrame();
+        int a = table.create(1, 0, 0, 0);
+        table.observe(a, 0, 0, 0, 0, 0, 1, 1);
+        assertTrue(table.updated[a]);
+
+        table.beginFrame();
+
+        assertFalse(table.updated[a]);
+    }
+
+    @Test
+    public void predictAll_advancesEveryActiveTrack() {
+        TrackTable table = newTable(4);
+        int a = table.create(1, 0, 0, 0);
+        table.predictAll(0.1);
+        table.correct(a, 10, 0);
+        table.predictAll(0.1);
+        table.correct(a, 20, 0);
+
+        table.predictAll(0.1);
+
+        assertTrue(table.predictedX(a) > 20);
+        assertEquals(0, table.predictedY(a), 1e-9);
+    }
+
+    @Test
+    public void exportHistory_roundTripsThroughReinstate() {
+        TrackTable table = new TrackTable(2, 3, 2, new ConstantVelocityFilter(500, 6, 800));
+        int a = table.create(1, 0, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            table.observe(a, i * 100, i + 1, 1, i, 0, i + 2, 2);
+        }
+        long[] times = new long[3];
+        float[] boxes = new float[12];
+
+        int count = table.exportHistory(a, times, boxes);
+        table.remove(a);
+        int b = table.create(2, 50, 50, 600);
+        table.reinstate(b, 1, times, boxes, count);
+
+        assertEquals(3, count);
+        assertArrayEquals(new long[]{200, 300, 400}, times);
+        assertEquals(1, table.id[b]);
+        assertTrue(table.isConfirmed(b));
+        assertEquals(400, table.historyTime(b, 0));
+        assertEquals(3f, table.historyCenterX(b, 2), 0);
+    }
+
+    @Test
+    public void updateAppearance_blendsIntoRunningDescriptor() {
+        TrackTable table = new TrackTable(2, 3, 2, new ConstantVelocityFilter(500, 6, 800));
+        int a = table.create(1, 0, 0, 0);
+
+        table.updateAppearance(a, new float[]{1, 0}, 0, 0.25f);
+        table.updateAppearance(a, new float[]{0, 1}, 0, 0.25f);
+
+        assertEquals(0.75f, table.appearance[a * 2], 1e-6);
+        assertEquals(0.25f, table.appearance[a * 2 + 1], 1e-6);
+    }
+
+    @Test
+    public void observe_recordsSimplifiedTrajectory() {
+        TrackTable table = new TrackTable(2, 3, 0, new TrajectorySimplifier(8, 2), new ConstantVelocityFilter(500, 6, 800));
+        int a = table.create(1, 0, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            double y = i < 50 ? 0 : (i - 50) * 4;
+            table.observe(a, i * 10, i * 4, y, 0, 0, 1, 1);
+        }
+        long[] times = new long[8];
+        float[] xs = new float[8];
+        float[] ys = new float[8];
+
+        int count = table.exportTrajectory(a, times, xs, ys);
+
+        assertEquals(3, count);
+        assertArrayEquals(new long[]{0, 500, 990}, new long[]{times[0], times[1], times[2]});
+        assertEquals(196f, ys[2], 0);
+    }
+
+    @Test
+    public void reinstateTrajectory_continuesThePathOfTheLostTrack() {
+        TrackTable table = new TrackTable(2, 3, 0, new TrajectorySimplifier(8, 2), new ConstantVelocityFilter(500, 6, 800));
+        int b = table.create(1, 400, 0, 1000);
+        table.reinstateTrajectory(b, new long[]{0, 500}, new float[]{0, 200}, new float[]{0, 0}, 2);
+
+        // Reappears after an occlusion further along, then turns
+        table.observe(b, 1000, 400, 0, 0, 0, 1, 1);
+        table.observe(b, 1500, 400, 200, 0, 0, 1, 1);
+        long[] times = new long[8];
+        float[] xs = new float[8];
+        float[] ys = new float[8];
+
+        int count = table.exportTrajectory(b, times, xs, ys);
+
+        assertEquals(3, count);
+        assertArrayEquals(new long[]{0, 1000, 1500}, new long[]{times[0], times[1], times[2]});
+        assertEquals(400f, xs[1], 0);
+    }
+
+    @Test
+    public void setGroundPlane_measuresSpeedOnTheRoad() {
+        TrackTable table = newTable(2);
+        int a = table.create(1, 0, 0, 0);
+        for (int i = 0; i < 3; i++) {
+            table.observe(a, i * 100, 5, i * 10, 0, i * 10 - 4, 10, i * 10);
+        }
+        assertEquals(0, table.groundSampleCount(a));
+
+        // 10 cm per pixel; the history observed so far is re-projected
+        table.setGroundPlane(new GroundPlane(new double[]{0.1, 0, 0, 0, 0.1, 0, 0, 0, 1}));
+        assertEquals(3, table.groundSampleCount(a));
+        table.observe(a, 300, 5, 30, 0, 26, 10, 30);
+
+        assertEquals(4, table.groundSampleCount(a));
+        assertEquals(0.01, table.groundSpeed(a), 1e-9);
+        assertEquals(1, table.groundSpeedConfidence(a), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void remove_rejectsFreeSlot() {
+        TrackTable table = newTable(2);
+        int a = table.create(1, 0, 0, 0);
+        table.remove(a);
+        table.remove(a);
+    }
+
+    @Test
+    public void clear_endsEveryTrackAndFreesItsSlot() {
+        TrackTable table = newTable(2);
+        table.create(1, 0, 0, 0);
+        int b = table.create(2, 10, 10, 0);
+        table.state[b] = TrackLifecycle.CONFIRMED;
+        final int[] ended = new int[2];
+
+        table.clear(new TrackTable.DeletionListener() {
+            @Override
+            public void onDeleted(int slot, boolean wasConfirmed) {
+                ended[wasConfirmed ? 1 : 0]++;
+            }
+        });
+
+        assertEquals(0, table.activeCount());
+        assertArrayEquals(new int[]{1, 1}, ended);
+        table.create(3, 0, 0, 0);
+        table.create(4, 0, 0, 0);
+        assertEquals(2, table.capacity());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TrajectorySimplifier}.
+ */
+public class TrajectorySimplifierTest {
+
+    private static final int BUDGET = 16;
+
+    private final TrajectorySimplifier simplifier = new TrajectorySimplifier(BUDGET, 3);
+    private final long[] times = new long[BUDGET];
+    private final float[] xs = new float[BUDGET];
+    private final float[] ys = new float[BUDGET];
+    private final float[] state = new float[TrajectorySimplifier.STATE_SIZE];
+    private int count = 0;
+
+    private void add(long time, double x, double y) {
+        count = simplifier.append(times, xs, ys, 0, count, state, 0, time, (float) x, (float) y);
+    }
+
+    // Distance of a point from the recorded path at the same time
+    private float distanceToPath(long time, double x, double y) {
+        for (int i = 1; i < count; i++) {
+            if (time <= times[i]) {
+                return TrajectorySimplifier.synchronizedDistance(time, (float) x, (float) y,
+                        times[i - 1], xs[i - 1], ys[i - 1], times[i], xs[i], ys[i]);
+            }
+        }
+        return Float.MAX_VALUE;
+    }
+
+    @Test
+    public void append_collapsesStraightMotionToItsEndpoints() {
+        for (int i = 0; i <= 1000; i++) {
+            add(i * 33, i * 2, 100 + i);
+        }
+
+        assertEquals(2, count);
+        assertEquals(0, times[0]);
+        assertEquals(33000, times[1]);
+        assertEquals(2000f, xs[1], 0);
+    }
+
+    @Test
+    public void append_keepsStopAsOnePointUntilTheVehicleLeaves() {
+        double[] px = new double[600];
+        for (int i = 0; i < 500; i++) {
+            px[i] = 50 + (i % 2) * 1.2; // Parked with jitter
+            add(i, px[i], 80);
+        }
+        assertEquals(1, count);
+        assertEquals(2, simplifier.export(times, xs, ys, 0, count, state, 0, new long[BUDGET], new float[BUDGET], new float[BUDGET]));
+
+        for (int i = 500; i < 600; i++) {
+            px[i] = 50 + (i - 499) * 2; // Drives off
+            add(i, px[i], 80);
+        }
+        assertEquals(3, count);
+        for (int i = 0; i < 600; i++) {
+            assertTrue("Point " + i, distanceToPath(i, px[i], 80) <= 3.001f);
+        }
+    }
+
+    @Test
+    public void append_followsSlowCurveWithinTolerance() {
+        double radius = 60;
+        double[] px = new double[95];
+        double[] py = new double[95];
+        for (int i = 0; i < px.length; i++) {
+            double angle = i / radius; // 1 px steps along a quarter circle
+            px[i] = radius * Math.cos(angle);
+            py[i] = radius * Math.sin(angle);
+            add(i, px[i], py[i]);
+        }
+
+        assertTrue(count > 2 && count < BUDGET);
+        for (int i = 0; i < px.length; i++) {
+            assertTrue("Point " + i, distanceToPath(i, px[i], py[i]) <= 3.001f);
+        }
+    }
+
+    @Test
+    public void append_staysWithinBudgetAndKeepsEndpoints() {
+        for (int i = 0; i < 2000; i++) {
+            add(i, i, (i / 10) % 2 == 0 ? 0 : 40); // Square wave
+            assertTrue(count < BUDGET);
+        }
+
+        long[] outTimes = new long[BUDGET];
+        float[] outXs = new float[BUDGET];
+        int exported = simplifier.export(times, xs, ys, 0, count, state, 0, outTimes, outXs, new float[BUDGET]);
+        assertEquals(0, outTimes[0]);
+        assertEquals(1999, outTimes[exported - 1]);
+        assertEquals(1999f, outXs[exported - 1], state[0] / 2);
+    }
+
+    @Test
+    public void simplify_keepsCornersBeyondTolerance() {
+        float[] x = {0, 5, 10, 10, 10};
+        float[] y = {0, 0.5f, 0, 5, 10};
+        long[] t = {0, 1, 2, 3, 4};
+
+        int kept = simplifier.simplify(t, x, y, 0, 5, 1);
+
+        assertEquals(3, kept);
+        assertArrayEquals(new long[]{0, 2, 4}, new long[]{t[0], t[1], t[2]});
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.javaapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link WindowRegression}.
+ */
+public class WindowRegressionTest {
+
+    private final double[] state = new double[WindowRegression.STATE_SIZE];
+
+    @Test
+    public void slope_isExactForSamplesOnALine() {
+        for (int i = 0; i < 6; i++) {
+            WindowRegression.add(state, 0, i * 0.1, 40 + 25 * i * 0.1);
+        }
+
+        assertEquals(25, WindowRegression.slope(state, 0), 1e-9);
+        assertEquals(0, WindowRegression.slopeStandardError(state, 0), 1e-6);
+        assertEquals(1, WindowRegression.confidence(state, 0), 1e-6);
+    }
+
+    @Test
+    public void remove_matchesAFreshFitOfTheRemainingWindow() {
+        Random random = new Random(3);
+        double[] t = new double[30];
+        double[] x = new double[30];
+        for (int i = 0; i < t.length; i++) {
+            t[i] = i * 0.033;
+            x[i] = 100 + 60 * t[i] + random.nextGaussian() * 2;
+        }
+        // Slide a window of 8 samples over the sequence
+        for (int i = 0; i < t.length; i++) {
+            WindowRegression.add(state, 0, t[i], x[i]);
+            if (i >= 8) {
+                WindowRegression.remove(state, 0, t[i - 8], x[i - 8]);
+            }
+        }
+        double[] fresh = new double[WindowRegression.STATE_SIZE];
+        for (int i = t.length - 8; i < t.length; i++) {
+            WindowRegression.add(fresh, 0, t[i], x[i]);
+        }
+
+        assertEquals(8, WindowRegression.count(state, 0));
+        assertEquals(WindowRegression.slope(fresh, 0), WindowRegression.slope(state, 0), 1e-6);
+        assertEquals(WindowRegression.slopeStandardError(fresh, 0), WindowRegression.slopeStandardError(state, 0), 1e-6);
+    }
+
+    @Test
+    public void confidence_dropsWithJitter() {
+        double[] noisy = new double[WindowRegression.STATE_SIZE];
+        Random random = new Random(5);
+        for (int i = 0; i < 10; i++) {
+            WindowRegression.add(state, 0, i * 0.033, 30 * i * 0.033 + random.nextGaussian() * 0.2);
+            WindowRegression.add(noisy, 0, i * 0.033, 30 * i * 0.033 + random.nextGaussian() * 4);
+        }
+
+        assertTrue(WindowRegression.slopeStandardError(noisy, 0) > WindowRegression.slopeStandardError(state, 0));
+        assertTrue(WindowRegression.confidence(noisy, 0) < WindowRegression.confidence(state, 0));
+        assertTrue(WindowRegression.confidence(state, 0) > 0.9);
+    }
+
+    @Test
+    public void tooFewSamples_giveNoSlopeAndNoConfidence() {
+        WindowRegression.add(state, 0, 0, 10);
+        assertEquals(0, WindowRegression.slope(state, 0), 0);
+
+        WindowRegression.add(state, 0, 1, 20);
+        assertEquals(10, WindowRegression.slope(state, 0), 1e-9);
+        assertTrue(Double.isInfinite(WindowRegression.slopeStandardError(state, 0)));
+        assertEquals(0, WindowRegression.confidence(state, 0), 0);
+    }
+}